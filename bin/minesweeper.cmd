@@ -0,0 +1,8 @@
+@echo off
+rem Starts Minesweeper from the jar built by build.xml,
+rem with the class-data-sharing archive built alongside it when there is one (see -cds-archive in build.xml)
+set DIST=%~dp0..\dist
+set CDS=
+rem -Xshare:auto carries on without the archive if it doesn't match this JVM or jar
+if exist "%DIST%\Minesweeper.jsa" set CDS=-XX:SharedArchiveFile="%DIST%\Minesweeper.jsa" -Xshare:auto
+java %CDS% %JAVA_OPTS% -jar "%DIST%\Minesweeper.jar" %*
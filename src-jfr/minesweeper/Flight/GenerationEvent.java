@@ -0,0 +1,29 @@
+package minesweeper.Flight;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("minesweeper.Generation")
+@Label("Minefield Generation")
+@Category("Minesweeper")
+@Description("Mines placed by Minefield.populate")
+class GenerationEvent extends Event {
+	@Label("Strategy")
+	String strategy;
+
+	@Label("Rows")
+	int rows;
+
+	@Label("Columns")
+	int columns;
+
+	@Label("Mines")
+	int mines;
+
+	@Label("Density")
+	@Description("Mines per tile")
+	float density;
+}
@@ -0,0 +1,91 @@
+package minesweeper.Flight;
+
+import jdk.jfr.FlightRecorder;
+
+final class JfrEvents implements FlightEvents {
+	/* The jdk.jfr side of FlightRecording, which loads this class by name
+	   Everything in src-jfr/ is only compiled when the JDK building it has jdk.jfr, see -post-compile in build.xml */
+
+	@Override
+	public boolean isRecording() {
+		// Only checks the recorder's state, without starting it up
+		return FlightRecorder.isInitialized();
+	}
+
+	/* Each event is begun before the operation and committed after it, so JFR records its duration
+	   Events are only written if a recording has them enabled, otherwise commit does nothing */
+
+	@Override
+	public Object beginGeneration() {
+		GenerationEvent event = new GenerationEvent();
+		event.begin();
+		return event;
+	}
+
+	@Override
+	public void commitGeneration(Object token, String strategy, int rows, int columns, int mines) {
+		GenerationEvent event = (GenerationEvent) token;
+		event.end();
+		if (event.shouldCommit()) {
+			event.strategy = strategy;
+			event.rows = rows;
+			event.columns = columns;
+			event.mines = mines;
+			event.density = (float) mines / ((float) rows * columns);
+			event.commit();
+		}
+	}
+
+	@Override
+	public Object beginReveal() {
+		RevealEvent event = new RevealEvent();
+		event.begin();
+		return event;
+	}
+
+	@Override
+	public void commitReveal(Object token, String operation, int seedRow, int seedColumn, long tilesRevealed, long pushes, boolean survived) {
+		RevealEvent event = (RevealEvent) token;
+		event.end();
+		if (event.shouldCommit()) {
+			event.operation = operation;
+			event.seedRow = seedRow;
+			event.seedColumn = seedColumn;
+			event.tilesRevealed = tilesRevealed;
+			event.pushes = pushes;
+			event.survived = survived;
+			event.commit();
+		}
+	}
+
+	@Override
+	public void commitWinCheck(boolean won, long mismatches) {
+		// Win checks are O(1), so there's no duration worth measuring
+		WinCheckEvent event = new WinCheckEvent();
+		if (event.shouldCommit()) {
+			event.won = won;
+			event.mismatches = mismatches;
+			event.commit();
+		}
+	}
+
+	@Override
+	public Object beginRender() {
+		RenderEvent event = new RenderEvent();
+		event.begin();
+		return event;
+	}
+
+	@Override
+	public void commitRender(Object token, int rows, int columns, boolean forceReveal, long bytes) {
+		RenderEvent event = (RenderEvent) token;
+		event.end();
+		if (event.shouldCommit()) {
+			event.rows = rows;
+			event.columns = columns;
+			event.forceReveal = forceReveal;
+			event.bytes = bytes;
+			event.commit();
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package minesweeper.Flight;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("minesweeper.Render")
+@Label("Render")
+@Category("Minesweeper")
+class RenderEvent extends Event {
+	@Label("Rows")
+	int rows;
+
+	@Label("Columns")
+	int columns;
+
+	@Label("Force Reveal")
+	boolean forceReveal;
+
+	@Label("Size")
+	@DataAmount
+	long bytes;
+}
@@ -0,0 +1,32 @@
+package minesweeper.Flight;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("minesweeper.Reveal")
+@Label("Reveal")
+@Category("Minesweeper")
+@Description("A step or chord, including its flood fill")
+class RevealEvent extends Event {
+	@Label("Operation")
+	String operation;
+
+	@Label("Seed Row")
+	int seedRow;
+
+	@Label("Seed Column")
+	int seedColumn;
+
+	@Label("Tiles Revealed")
+	long tilesRevealed;
+
+	@Label("Pushes")
+	@Description("Tiles pushed onto the flood fill's stack")
+	long pushes;
+
+	@Label("Survived")
+	boolean survived;
+}
@@ -0,0 +1,17 @@
+package minesweeper.Flight;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("minesweeper.WinCheck")
+@Label("Win Check")
+@Category("Minesweeper")
+class WinCheckEvent extends Event {
+	@Label("Won")
+	boolean won;
+
+	@Label("Mismatches")
+	long mismatches;
+}
@@ -0,0 +1,182 @@
+package minesweeper;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+final class VectorKernels extends BoardKernels {
+	/* The word kernels again, but working on as many words at once as the CPU's widest vector registers hold
+	   e.g. 4 words (256 tiles) per instruction with AVX2, or 8 with AVX-512. Only built and loaded on JDKs with
+	   jdk.incubator.vector, see BoardKernels for how these are chosen. */
+	private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+	VectorKernels() {
+		/* Only C2 compiles the vector API into vector instructions, anywhere else every vector is an object on the heap.
+		   And with vectors of only 2 words, e.g. SSE or NEON, these measured slower than the word kernels. */
+		String mode = System.getProperty("java.vm.info", "");
+		if (!(mode.startsWith("mixed mode") || mode.startsWith("compiled mode")) || mode.contains("emulated-client"))
+			throw new UnsupportedOperationException("The vector API isn't compiled in " + mode);
+		if (SPECIES.length() < 4)
+			throw new UnsupportedOperationException("Vectors of " + SPECIES.length() + " words are too narrow");
+	}
+
+	@Override
+	long[][][] neighbourPlanes(long[][] mines, int columns) {
+		int rows = mines.length;
+		int words = (columns + 63) >>> 6;
+		long lastWordMask = lastWordMask(columns);
+		long[][][] planes = new long[4][rows][words];
+		for (int row = 0; row < rows; row++) {
+			/* The first and last words only have a neighbouring word on one side, so they're counted one at a time,
+			   along with any words left over after the last whole vector. The vectors cover the words in between, and the
+			   words either side of each vector are loaded as vectors of their own, so every lane sees the bits carried in
+			   from its neighbouring words. */
+			countNeighbours(mines, row, 0, lastWordMask, planes);
+			int word = 1;
+			long[] above = row > 0 ? mines[row - 1] : null;
+			long[] here = mines[row];
+			long[] below = row < rows - 1 ? mines[row + 1] : null;
+			for (; word + SPECIES.length() < words; word += SPECIES.length()) {
+				// The 8 neighbours of every tile, as 8 one-bit inputs
+				LongVector west = west(here, word);
+				LongVector east = east(here, word);
+				LongVector northWest = west(above, word);
+				LongVector north = load(above, word);
+				LongVector northEast = east(above, word);
+				LongVector southWest = west(below, word);
+				LongVector south = load(below, word);
+				LongVector southEast = east(below, word);
+
+				/* Add them up with carry-save adders, each of which adds 3 inputs into a sum and a carry bit
+				   There are no loops or branches, so the JIT can keep every vector in a register */
+				LongVector partial = west.lanewise(VectorOperators.XOR, east);
+				LongVector sum1 = partial.lanewise(VectorOperators.XOR, northWest);
+				LongVector carry1 = west.and(east).or(partial.and(northWest));
+				partial = north.lanewise(VectorOperators.XOR, northEast);
+				LongVector sum2 = partial.lanewise(VectorOperators.XOR, southWest);
+				LongVector carry2 = north.and(northEast).or(partial.and(southWest));
+				partial = sum1.lanewise(VectorOperators.XOR, sum2);
+				LongVector sum3 = partial.lanewise(VectorOperators.XOR, south);
+				LongVector carry3 = sum1.and(sum2).or(partial.and(south));
+				// The 1s: the last input is added with a half adder
+				LongVector ones = sum3.lanewise(VectorOperators.XOR, southEast);
+				LongVector carry4 = sum3.and(southEast);
+				// The 2s: 4 carries out of the 1s
+				partial = carry1.lanewise(VectorOperators.XOR, carry2);
+				LongVector sum5 = partial.lanewise(VectorOperators.XOR, carry3);
+				LongVector carry5 = carry1.and(carry2).or(partial.and(carry3));
+				LongVector twos = sum5.lanewise(VectorOperators.XOR, carry4);
+				LongVector carry6 = sum5.and(carry4);
+				// The 4s and 8s: 2 carries out of the 2s
+				LongVector fours = carry5.lanewise(VectorOperators.XOR, carry6);
+				LongVector eights = carry5.and(carry6);
+
+				ones.intoArray(planes[0][row], word);
+				twos.intoArray(planes[1][row], word);
+				fours.intoArray(planes[2][row], word);
+				eights.intoArray(planes[3][row], word);
+			}
+			for (; word < words; word++) {
+				countNeighbours(mines, row, word, lastWordMask, planes);
+			}
+		}
+		return planes;
+	}
+
+	private static LongVector load(long[] bits, int word) {
+		// The words of a neighbouring row, or no mines at all off the top or bottom of the board
+		return bits == null ? LongVector.zero(SPECIES) : LongVector.fromArray(SPECIES, bits, word);
+	}
+
+	private static LongVector west(long[] bits, int word) {
+		// As BoardKernels.shiftedWest, with the carried bits loaded from one word earlier
+		return bits == null ? LongVector.zero(SPECIES) : load(bits, word).lanewise(VectorOperators.LSHL, 1)
+				.or(load(bits, word - 1).lanewise(VectorOperators.LSHR, 63));
+	}
+
+	private static LongVector east(long[] bits, int word) {
+		// As BoardKernels.shiftedEast, with the carried bits loaded from one word later
+		return bits == null ? LongVector.zero(SPECIES) : load(bits, word).lanewise(VectorOperators.LSHR, 1)
+				.or(load(bits, word + 1).lanewise(VectorOperators.LSHL, 63));
+	}
+
+	@Override
+	boolean noMismatches(long[][] a, long[][] b) {
+		// Stop at the first vector that has a mismatch in it
+		for (int row = 0; row < a.length; row++) {
+			long[] aRow = a[row];
+			long[] bRow = b[row];
+			int word = 0;
+			for (; word < SPECIES.loopBound(aRow.length); word += SPECIES.length()) {
+				LongVector aBits = LongVector.fromArray(SPECIES, aRow, word);
+				LongVector bBits = LongVector.fromArray(SPECIES, bRow, word);
+				if (aBits.compare(VectorOperators.NE, bBits).anyTrue()) {
+					return false;
+				}
+			}
+			for (; word < aRow.length; word++) {
+				if (aRow[word] != bRow[word]) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	@Override
+	long countMismatches(long[][] a, long[][] b) {
+		long count = 0;
+		for (int row = 0; row < a.length; row++) {
+			long[] aRow = a[row];
+			long[] bRow = b[row];
+			int word = 0;
+			if (aRow.length >= SPECIES.length()) {
+				// Each row is summed up on its own, since a vector carried from row to row isn't kept in a register
+				LongVector counts = LongVector.zero(SPECIES);
+				for (; word < SPECIES.loopBound(aRow.length); word += SPECIES.length()) {
+					LongVector aBits = LongVector.fromArray(SPECIES, aRow, word);
+					LongVector bBits = LongVector.fromArray(SPECIES, bRow, word);
+					counts = counts.add(bitCount(aBits.lanewise(VectorOperators.XOR, bBits)));
+				}
+				count += counts.reduceLanes(VectorOperators.ADD);
+			}
+			for (; word < aRow.length; word++) {
+				count += Long.bitCount(aRow[word] ^ bRow[word]);
+			}
+		}
+		return count;
+	}
+
+	@Override
+	long countBits(long[][] bits) {
+		long count = 0;
+		for (int row = 0; row < bits.length; row++) {
+			long[] bitsRow = bits[row];
+			int word = 0;
+			if (bitsRow.length >= SPECIES.length()) {
+				LongVector counts = LongVector.zero(SPECIES);
+				for (; word < SPECIES.loopBound(bitsRow.length); word += SPECIES.length()) {
+					counts = counts.add(bitCount(LongVector.fromArray(SPECIES, bitsRow, word)));
+				}
+				count += counts.reduceLanes(VectorOperators.ADD);
+			}
+			for (; word < bitsRow.length; word++) {
+				count += Long.bitCount(bitsRow[word]);
+			}
+		}
+		return count;
+	}
+
+	private static LongVector bitCount(LongVector bits) {
+		/* The number of set bits in each lane, as Long.bitCount would count them
+		   JDK 17's vector API has no lanewise bit count, so this is the usual divide and conquer: sum adjacent bits,
+		   then pairs, then nibbles, and finally the 8 bytes of each lane */
+		LongVector pairs = bits.sub(bits.lanewise(VectorOperators.LSHR, 1).and(0x5555555555555555L));
+		LongVector nibbles = pairs.and(0x3333333333333333L).add(pairs.lanewise(VectorOperators.LSHR, 2).and(0x3333333333333333L));
+		LongVector bytes = nibbles.add(nibbles.lanewise(VectorOperators.LSHR, 4)).and(0x0F0F0F0F0F0F0F0FL);
+		LongVector sums = bytes.add(bytes.lanewise(VectorOperators.LSHR, 8));
+		sums = sums.add(sums.lanewise(VectorOperators.LSHR, 16));
+		sums = sums.add(sums.lanewise(VectorOperators.LSHR, 32));
+		return sums.and(0x7F);
+	}
+}
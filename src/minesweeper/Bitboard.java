@@ -0,0 +1,249 @@
+package minesweeper;
+
+import java.util.Arrays;
+
+class Bitboard {
+	private final int rows;
+	private final int columns;
+	// The number of 64-bit words needed to hold one row, 1 bit per column
+	private final int words;
+	// Mask of the columns actually in use in the last word of each row
+	private final long lastWordMask;
+
+	/* Our per-row bitsets: column c of a row is bit (c % 64) of word (c / 64)
+	   Every operation below works on a whole word at a time, so 64 tiles are processed per instruction */
+	final long[][] mines;
+	final long[][] revealed;
+	final long[][] marked;
+
+	/* The mine neighbour count of every tile, bit-sliced into 4 planes (1, 2, 4 and 8)
+	   These are recomputed lazily after the mines change */
+	private long[][][] neighbourPlanes;
+
+	/* The flood fill's two frontier buffers, allocated by the first step that floods and reused by every step after it
+	   Each step leaves both of them all 0, ready for the next */
+	private long[][] frontierBuffer;
+	private long[][] nextBuffer;
+
+	// The vector, word-parallel or scalar kernels which do the heavy lifting, see BoardKernels
+	private final BoardKernels kernels;
+
+	public int getRowCount() {
+		return rows;
+	}
+
+	public int getColumnCount() {
+		return columns;
+	}
+
+	public Bitboard(int rows, int columns) {
+		this(rows, columns, BoardKernels.get());
+	}
+
+	Bitboard(int rows, int columns, BoardKernels kernels) {
+		// Argument sanity checks, the same as Minefield's
+		if (rows <= 0)
+			throw new IllegalArgumentException("Must have 1 or more rows");
+		if (columns <= 0)
+			throw new IllegalArgumentException("Must have 1 or more columns");
+		if ((long) rows * columns <= 1)
+			throw new IllegalArgumentException("Must be more than 1 tile");
+
+		this.rows = rows;
+		this.columns = columns;
+		this.words = (columns + 63) >>> 6;
+		this.lastWordMask = BoardKernels.lastWordMask(columns);
+		this.kernels = kernels;
+
+		mines = new long[rows][words];
+		revealed = new long[rows][words];
+		marked = new long[rows][words];
+	}
+
+	public static Bitboard of(Minefield minefield) {
+		return of(minefield, BoardKernels.get());
+	}
+
+	static Bitboard of(Minefield minefield, BoardKernels kernels) {
+		// Copy the mined, revealed and marked state of every tile into a new Bitboard
+		if (!minefield.getTopology().isRectangle())
+			throw new IllegalArgumentException("Bitboards only hold the classic rectangular grid");
+		Bitboard bitboard = new Bitboard(minefield.getRowCount(), minefield.getColumnCount(), kernels);
+		for (int row = 0; row < bitboard.rows; row++) {
+			for (int col = 0; col < bitboard.columns; col++) {
+				MineTile tile = minefield.getTile(row, col);
+				long bit = 1L << col;
+				int word = col >>> 6;
+				if (tile.isMined()) bitboard.mines[row][word] |= bit;
+				if (tile.isRevealed()) bitboard.revealed[row][word] |= bit;
+				if (tile.isMarked()) bitboard.marked[row][word] |= bit;
+			}
+		}
+		return bitboard;
+	}
+
+	private void checkCoordinates(int row, int column) {
+		// Argument sanity checks for coordinate boundaries
+		if (row < 0 || row >= rows)
+			throw new IllegalArgumentException("Row coordinate out of range");
+		if (column < 0 || column >= columns)
+			throw new IllegalArgumentException("Column coordinate out of range");
+	}
+
+	private static boolean get(long[][] bits, int row, int column) {
+		// Shifts in Java only use the bottom 6 bits of the shift distance, so 1L << column == 1L << (column % 64)
+		return (bits[row][column >>> 6] & (1L << column)) != 0;
+	}
+
+	public boolean isMined(int row, int column) {
+		checkCoordinates(row, column);
+		return get(mines, row, column);
+	}
+
+	public boolean isRevealed(int row, int column) {
+		checkCoordinates(row, column);
+		return get(revealed, row, column);
+	}
+
+	public boolean isMarked(int row, int column) {
+		checkCoordinates(row, column);
+		return get(marked, row, column);
+	}
+
+	public void mineTile(int row, int column) {
+		checkCoordinates(row, column);
+		mines[row][column >>> 6] |= 1L << column;
+		// The neighbour counts are now stale
+		neighbourPlanes = null;
+	}
+
+	public void markTile(int row, int column) {
+		checkCoordinates(row, column);
+		// Toggle marked
+		marked[row][column >>> 6] ^= 1L << column;
+	}
+
+	public long countMismatches() {
+		// Count the tiles where isMined XOR isMarked, i.e. unmarked mines and incorrectly marked tiles
+		return kernels.countMismatches(mines, marked);
+	}
+
+	public boolean areAllMinesRevealed() {
+		// Equivalent to countMismatches() == 0, but stops at the first mismatch
+		return kernels.noMismatches(mines, marked);
+	}
+
+	public long countRevealed() {
+		return kernels.countBits(revealed);
+	}
+
+	private long[][][] neighbourPlanes() {
+		if (neighbourPlanes == null) {
+			neighbourPlanes = kernels.neighbourPlanes(mines, columns);
+		}
+		return neighbourPlanes;
+	}
+
+	public int getMineNeighbours(int row, int column) {
+		checkCoordinates(row, column);
+		long[][][] planes = neighbourPlanes();
+		int word = column >>> 6;
+		int count = 0;
+		for (int plane = 0; plane < 4; plane++) {
+			count |= (int) ((planes[plane][row][word] >>> column) & 1) << plane;
+		}
+		return count;
+	}
+
+	private long zeroMask(long[][][] planes, int row, int word) {
+		// Tiles which aren't mined and have 0 mined neighbours - revealing these reveals all their neighbours too
+		long mask = ~(mines[row][word] | planes[0][row][word] | planes[1][row][word] | planes[2][row][word] | planes[3][row][word]);
+		return word == words - 1 ? mask & lastWordMask : mask;
+	}
+
+	public boolean step(int row, int column) {
+		/* The same as Minefield.step on a populated minefield: a Bitboard has no populateOnFirstStep,
+		   so stepping on a mine loses even on the first move */
+		checkCoordinates(row, column);
+
+		if (get(mines, row, column)) {
+			// Unlucky mate, you lose - that tile had a mine on it!
+			return false;
+		}
+
+		long[][][] planes = neighbourPlanes();
+
+		// Reveal the tile
+		long bit = 1L << column;
+		int seedWord = column >>> 6;
+		revealed[row][seedWord] |= bit;
+
+		// If mine neighbours > 0, we just reveal the tile, so no need to flood fill anything...
+		if ((zeroMask(planes, row, seedWord) & bit) == 0) {
+			return true;
+		}
+
+		/* The frontier holds the zero tiles revealed in the previous round. Each round dilates the frontier
+		   by one tile in every direction, reveals whatever that covers, and keeps the newly revealed zero tiles
+		   as the next frontier. This reveals exactly what Minefield's stack-based flood fill reveals. */
+		if (frontierBuffer == null) {
+			frontierBuffer = new long[rows][words];
+			nextBuffer = new long[rows][words];
+		}
+		long[][] frontier = frontierBuffer;
+		long[][] next = nextBuffer;
+		frontier[row][seedWord] = bit;
+		int frontierMin = row;
+		int frontierMax = row;
+
+		while (frontierMin <= frontierMax) {
+			// Only the rows touching the frontier can change this round
+			int rowsRangeMin = Math.max(frontierMin - 1, 0);
+			int rowsRangeMax = Math.min(frontierMax + 1, rows - 1);
+			int nextMin = Integer.MAX_VALUE;
+			int nextMax = Integer.MIN_VALUE;
+
+			for (int dilateRow = rowsRangeMin; dilateRow <= rowsRangeMax; dilateRow++) {
+				boolean anyNext = false;
+				for (int word = 0; word < words; word++) {
+					// Dilate: OR together the frontier rows above, at, and below, each with their west and east shifts
+					long dilated = 0;
+					for (int neighbourRow = dilateRow - 1; neighbourRow <= dilateRow + 1; neighbourRow++) {
+						if (neighbourRow < frontierMin || neighbourRow > frontierMax) {
+							continue;
+						}
+						long[] frontierBits = frontier[neighbourRow];
+						dilated |= frontierBits[word] | BoardKernels.shiftedWest(frontierBits, word) | BoardKernels.shiftedEast(frontierBits, word, lastWordMask);
+					}
+
+					// Don't step into an already revealed tile
+					long newlyRevealed = dilated & ~revealed[dilateRow][word];
+					revealed[dilateRow][word] |= newlyRevealed;
+
+					long nextBits = newlyRevealed & zeroMask(planes, dilateRow, word);
+					next[dilateRow][word] = nextBits;
+					anyNext |= nextBits != 0;
+				}
+				if (anyNext) {
+					nextMin = Math.min(nextMin, dilateRow);
+					nextMax = Math.max(nextMax, dilateRow);
+				}
+			}
+
+			// Clear the old frontier, so that it can be reused as the next round's buffer
+			for (int clearRow = frontierMin; clearRow <= frontierMax; clearRow++) {
+				Arrays.fill(frontier[clearRow], 0);
+			}
+			long[][] swap = frontier;
+			frontier = next;
+			next = swap;
+			// Rows of the new frontier outside nextMin..nextMax were written as 0, so they're clear already
+			frontierMin = nextMin;
+			frontierMax = nextMax;
+		}
+		/* The last round found no new zero tiles, so the frontier it wrote is all 0, and every row of the other buffer
+		   was cleared after its round. The buffers may have swapped places, which doesn't matter as both are clear. */
+
+		return true;
+	}
+}
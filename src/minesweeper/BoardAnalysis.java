@@ -0,0 +1,317 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+final class BoardAnalysis {
+	/* How hard a board is, from where its mines are: its 3BV, openings and islands
+	   An opening is a connected area of empty tiles (no mined neighbours), which one click reveals along with the
+	   numbers around it. An island is a connected group of numbers with no empty tile next to any of them, so every
+	   one of them has to be clicked. 3BV, the fewest clicks that clear the board, is the number of openings plus the
+	   number of tiles in islands. Tiles are connected to all 8 neighbours.
+	   The board is split into bands of rows, which are labelled in parallel: each band joins its tiles into openings
+	   and islands with a union-find of its own, then the bands' edges are joined up with a union-find over all of
+	   their components. Only the board's mine counts are read, so it can be analysed at any point in a game,
+	   as long as no mines are placed in the meantime. */
+	static final int BAND_ROWS = 256;
+
+	private final int openingCount;
+	private final long[] openingSizes;
+	private final long[] islandSizes;
+	private final long threeBV;
+
+	private BoardAnalysis(long[] openingSizes, long[] islandSizes) {
+		this.openingSizes = openingSizes;
+		this.islandSizes = islandSizes;
+		openingCount = openingSizes.length;
+		long islandTiles = 0;
+		for (long size : islandSizes) {
+			islandTiles += size;
+		}
+		threeBV = openingCount + islandTiles;
+	}
+
+	public long getThreeBV() {
+		return threeBV;
+	}
+
+	public int getOpeningCount() {
+		return openingCount;
+	}
+
+	public long[] getOpeningSizes() {
+		// The number of empty tiles in each opening, largest first
+		return openingSizes.clone();
+	}
+
+	public int getIslandCount() {
+		return islandSizes.length;
+	}
+
+	public long[] getIslandSizes() {
+		// The number of tiles in each island, largest first
+		return islandSizes.clone();
+	}
+
+	@Override
+	public String toString() {
+		return "3BV " + threeBV + ", " + openingCount + " openings, " + islandSizes.length + " islands";
+	}
+
+	// What a tile counts as, where only empty tiles and island numbers belong to components
+	private static final byte MINE = 0;
+	private static final byte EMPTY = 1;
+	private static final byte BORDER_NUMBER = 2;
+	private static final byte ISLAND_NUMBER = 3;
+
+	private static final class Band {
+		// The band's components: their sizes, and whether each is an opening or an island
+		final long[] sizes;
+		final boolean[] openings;
+		// The component of each tile on the band's first and last rows, or -1
+		final int[] firstRow;
+		final int[] lastRow;
+
+		Band(long[] sizes, boolean[] openings, int[] firstRow, int[] lastRow) {
+			this.sizes = sizes;
+			this.openings = openings;
+			this.firstRow = firstRow;
+			this.lastRow = lastRow;
+		}
+	}
+
+	public static BoardAnalysis analyse(Minefield minefield) {
+		return analyse(minefield, BAND_ROWS);
+	}
+
+	static BoardAnalysis analyse(Minefield minefield, int bandRows) {
+		if (bandRows <= 0)
+			throw new IllegalArgumentException("Bands must have 1 or more rows");
+		if ((long) bandRows * minefield.getColumnCount() > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Too many tiles in a band");
+		// Openings and islands are found with the classic grid's 8 neighbours
+		if (!minefield.getTopology().isRectangle())
+			throw new IllegalArgumentException("Only the classic rectangular grid can be analysed");
+
+		int rows = minefield.getRowCount();
+		int bandCount = (rows + bandRows - 1) / bandRows;
+		int threads = Math.min(Runtime.getRuntime().availableProcessors(), bandCount);
+		ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "minesweeper-analysis");
+			thread.setDaemon(true);
+			return thread;
+		});
+		Band[] bands = new Band[bandCount];
+		try {
+			ArrayList<Future<Band>> futures = new ArrayList<>(bandCount);
+			for (int band = 0; band < bandCount; band++) {
+				int firstRow = band * bandRows;
+				int lastRow = Math.min(firstRow + bandRows, rows);
+				futures.add(workers.submit(() -> labelBand(minefield, firstRow, lastRow)));
+			}
+			for (int band = 0; band < bandCount; band++) {
+				bands[band] = futures.get(band).get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted analysing the board", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Couldn't analyse the board", e.getCause());
+		} finally {
+			workers.shutdownNow();
+		}
+		return merge(bands, minefield.getColumnCount());
+	}
+
+	private static Band labelBand(Minefield minefield, int firstRow, int lastRow) {
+		int rows = minefield.getRowCount();
+		int columns = minefield.getColumnCount();
+		int bandRows = lastRow - firstRow;
+
+		// Which tiles are empty, for the band and the rows either side of it, which decide if its numbers are islands
+		int haloFirst = Math.max(firstRow - 1, 0);
+		int haloLast = Math.min(lastRow + 1, rows);
+		boolean[][] empty = new boolean[haloLast - haloFirst][columns];
+		for (int row = haloFirst; row < haloLast; row++) {
+			MineTile[] rowTiles = minefield.getTileRow(row);
+			boolean[] rowEmpty = empty[row - haloFirst];
+			for (int col = 0; col < columns; col++) {
+				rowEmpty[col] = !rowTiles[col + 1].isMined() && rowTiles[col + 1].getMineNeighbours() == 0;
+			}
+		}
+
+		// Classify every tile in the band, and join each to the neighbours of the same kind already seen (W, NW, N, NE)
+		byte[] kinds = new byte[bandRows * columns];
+		UnionFind components = new UnionFind(kinds.length);
+		for (int row = firstRow; row < lastRow; row++) {
+			MineTile[] rowTiles = minefield.getTileRow(row);
+			int rowStart = (row - firstRow) * columns;
+			for (int col = 0; col < columns; col++) {
+				byte kind;
+				if (rowTiles[col + 1].isMined()) {
+					kind = MINE;
+				} else if (empty[row - haloFirst][col]) {
+					kind = EMPTY;
+				} else {
+					kind = ISLAND_NUMBER;
+					for (int neighbourRow = Math.max(row - 1, 0); neighbourRow <= Math.min(row + 1, rows - 1) && kind == ISLAND_NUMBER; neighbourRow++) {
+						boolean[] neighbourEmpty = empty[neighbourRow - haloFirst];
+						for (int neighbourCol = Math.max(col - 1, 0); neighbourCol <= Math.min(col + 1, columns - 1); neighbourCol++) {
+							if (neighbourEmpty[neighbourCol]) {
+								kind = BORDER_NUMBER;
+								break;
+							}
+						}
+					}
+				}
+				int index = rowStart + col;
+				kinds[index] = kind;
+				if (kind == EMPTY || kind == ISLAND_NUMBER) {
+					if (col > 0 && kinds[index - 1] == kind) {
+						components.union(index, index - 1);
+					}
+					if (row > firstRow) {
+						int above = index - columns;
+						for (int neighbour = Math.max(col - 1, 0) - col; neighbour <= Math.min(col + 1, columns - 1) - col; neighbour++) {
+							if (kinds[above + neighbour] == kind) {
+								components.union(index, above + neighbour);
+							}
+						}
+					}
+				}
+			}
+		}
+
+		// Number the band's components, and count their tiles
+		int[] componentOf = new int[kinds.length];
+		int componentCount = 0;
+		for (int index = 0; index < kinds.length; index++) {
+			if ((kinds[index] == EMPTY || kinds[index] == ISLAND_NUMBER) && components.find(index) == index) {
+				componentOf[index] = componentCount++;
+			}
+		}
+		long[] sizes = new long[componentCount];
+		boolean[] openings = new boolean[componentCount];
+		for (int index = 0; index < kinds.length; index++) {
+			if (kinds[index] == EMPTY || kinds[index] == ISLAND_NUMBER) {
+				int component = componentOf[components.find(index)];
+				componentOf[index] = component;
+				sizes[component]++;
+				openings[component] = kinds[index] == EMPTY;
+			} else {
+				componentOf[index] = -1;
+			}
+		}
+		return new Band(sizes, openings, Arrays.copyOfRange(componentOf, 0, columns),
+			Arrays.copyOfRange(componentOf, (bandRows - 1) * columns, bandRows * columns));
+	}
+
+	private static BoardAnalysis merge(Band[] bands, int columns) {
+		// Every band's components get a number of their own, then components touching across a band's edge are joined
+		int[] offsets = new int[bands.length];
+		long componentCount = 0;
+		for (int band = 0; band < bands.length; band++) {
+			offsets[band] = (int) componentCount;
+			componentCount += bands[band].sizes.length;
+		}
+		if (componentCount > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Too many openings and islands to count");
+
+		UnionFind components = new UnionFind((int) componentCount);
+		for (int band = 1; band < bands.length; band++) {
+			int[] above = bands[band - 1].lastRow;
+			int[] below = bands[band].firstRow;
+			for (int col = 0; col < columns; col++) {
+				if (below[col] < 0) {
+					continue;
+				}
+				// An empty tile is never next to an island, so any two neighbouring components are the same kind
+				for (int neighbourCol = Math.max(col - 1, 0); neighbourCol <= Math.min(col + 1, columns - 1); neighbourCol++) {
+					if (above[neighbourCol] >= 0) {
+						components.union(offsets[band] + below[col], offsets[band - 1] + above[neighbourCol]);
+					}
+				}
+			}
+		}
+
+		// Add up each joined component's tiles at its root
+		long[] totals = new long[(int) componentCount];
+		boolean[] openings = new boolean[(int) componentCount];
+		int openingCount = 0;
+		int islandCount = 0;
+		for (int band = 0; band < bands.length; band++) {
+			for (int component = 0; component < bands[band].sizes.length; component++) {
+				int id = offsets[band] + component;
+				int root = components.find(id);
+				totals[root] += bands[band].sizes[component];
+				openings[root] = bands[band].openings[component];
+				if (root == id) {
+					if (openings[root]) {
+						openingCount++;
+					} else {
+						islandCount++;
+					}
+				}
+			}
+		}
+		long[] openingSizes = new long[openingCount];
+		long[] islandSizes = new long[islandCount];
+		openingCount = 0;
+		islandCount = 0;
+		for (int id = 0; id < totals.length; id++) {
+			if (components.find(id) == id) {
+				if (openings[id]) {
+					openingSizes[openingCount++] = totals[id];
+				} else {
+					islandSizes[islandCount++] = totals[id];
+				}
+			}
+		}
+		return new BoardAnalysis(descending(openingSizes), descending(islandSizes));
+	}
+
+	private static long[] descending(long[] values) {
+		Arrays.sort(values);
+		for (int i = 0, j = values.length - 1; i < j; i++, j--) {
+			long swap = values[i];
+			values[i] = values[j];
+			values[j] = swap;
+		}
+		return values;
+	}
+
+	private static final class UnionFind {
+		// Each element's parent, with roots pointing at themselves, and roots always the smaller index of a union
+		private final int[] parents;
+
+		UnionFind(int size) {
+			parents = new int[size];
+			for (int i = 0; i < size; i++) {
+				parents[i] = i;
+			}
+		}
+
+		int find(int element) {
+			// Path halving: point every other element on the way at its grandparent
+			while (parents[element] != element) {
+				parents[element] = parents[parents[element]];
+				element = parents[element];
+			}
+			return element;
+		}
+
+		void union(int a, int b) {
+			int rootA = find(a);
+			int rootB = find(b);
+			if (rootA < rootB) {
+				parents[rootB] = rootA;
+			} else if (rootB < rootA) {
+				parents[rootA] = rootB;
+			}
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package minesweeper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+final class BoardCache {
+	/* The most recently used generated boards, so a board everybody is playing (a daily challenge, a tournament round)
+	   is only generated once. Each board is kept as an untouched template, and players get copies of it.
+	   A LinkedHashMap in access order keeps the least recently used board first, and evicts it when full. */
+	private final int capacity;
+	// Guarded by this
+	private final LinkedHashMap<BoardId, Minefield> templates;
+	private long hits = 0;
+	private long misses = 0;
+
+	public BoardCache(int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Must keep 1 or more boards");
+
+		this.capacity = capacity;
+		templates = new LinkedHashMap<BoardId, Minefield>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<BoardId, Minefield> eldest) {
+				return size() > BoardCache.this.capacity;
+			}
+		};
+	}
+
+	private synchronized Minefield template(BoardId id) {
+		/* Generating while holding the lock means a board asked for by many players at once is still only generated once
+		   Templates are never changed once they're in the cache, so they can be copied without the lock */
+		Minefield template = templates.get(id);
+		if (template == null) {
+			misses++;
+			template = id.generate();
+			templates.put(id, template);
+		} else {
+			hits++;
+		}
+		return template;
+	}
+
+	public Minefield get(BoardId id) {
+		Minefield minefield = new Minefield(id.getRows(), id.getColumns(), id.getMines());
+		minefield.copyFrom(template(id));
+		return minefield;
+	}
+
+	public void copyTo(BoardId id, Minefield minefield) {
+		// The same as get, into a Minefield of the right size that's already been allocated (see MinefieldPool)
+		minefield.copyFrom(template(id));
+	}
+
+	public synchronized int size() {
+		return templates.size();
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+}
@@ -0,0 +1,292 @@
+package minesweeper;
+
+import java.util.Arrays;
+
+final class BoardCodec {
+	/* A compact encoding of what a player can see of a Minefield, for sending or storing it instead of toString()
+	   After a small header, every tile is a 4-bit symbol, two to a byte, in row-major order:
+	     0-8  a revealed tile with that many mined neighbours (0 is empty)
+	     9    a revealed mine
+	     10   a marked tile
+	     11   a hidden tile
+	     12   a run of hidden tiles, and 13 a run of empty tiles, each followed by the run's length
+	   Run lengths are variable-length integers made of nibbles: 3 bits of the length and a continuation bit each.
+	   Hidden and empty tiles make up most of a board mid-game, and they come in long runs, so most of the board
+	   costs a few nibbles per run rather than a byte per tile. The header is a version byte and the rows and columns
+	   as byte-wise variable-length integers.
+	   encodeRanges encodes just some of the tiles, for sending what changed: after the same header comes the number
+	   of ranges as a byte-wise variable-length integer, then for each range its first tile's row-major index and its
+	   length as nibble variable-length integers, followed by its tiles' symbols the same way as above. */
+	static final int VERSION = 1;
+
+	static final int MINE = 9;
+	static final int MARKED = 10;
+	static final int HIDDEN = 11;
+	private static final int HIDDEN_RUN = 12;
+	private static final int EMPTY_RUN = 13;
+
+	// Shorter runs are cheaper as single symbols
+	private static final int MIN_RUN = 3;
+
+	private BoardCodec() {
+	}
+
+	static int symbolOf(MineTile tile, boolean forceReveal) {
+		// Straight from the tile's state, the same rules as MineTile.toString
+		if (tile.isMarked()) {
+			return MARKED;
+		} else if (forceReveal || tile.isRevealed()) {
+			return tile.isMined() ? MINE : tile.getMineNeighbours();
+		} else {
+			return HIDDEN;
+		}
+	}
+
+	static char charOf(int symbol) {
+		switch (symbol) {
+			case MINE:
+				return '*';
+			case MARKED:
+				return '!';
+			case HIDDEN:
+				return '#';
+			case 0:
+				return ' ';
+			default:
+				return (char) ('0' + symbol);
+		}
+	}
+
+	public static byte[] encode(Minefield minefield, boolean forceReveal) {
+		NibbleWriter out = new NibbleWriter(64);
+		putHeader(out, minefield);
+		putSymbols(out, minefield, 0, minefield.getTileCount(), forceReveal);
+		return out.toByteArray();
+	}
+
+	public static byte[] encodeRanges(Minefield minefield, long[] ranges, int rangeCount) {
+		// Range i covers the row-major tile indices [ranges[2 * i], ranges[2 * i + 1]), the same as CellRevealed's
+		NibbleWriter out = new NibbleWriter(16);
+		putHeader(out, minefield);
+		out.putByteVarint(rangeCount);
+		for (int i = 0; i < rangeCount; i++) {
+			long start = ranges[2 * i];
+			long end = ranges[2 * i + 1];
+			out.putVarint(start);
+			out.putVarint(end - start);
+			putSymbols(out, minefield, start, end, false);
+		}
+		return out.toByteArray();
+	}
+
+	private static void putHeader(NibbleWriter out, Minefield minefield) {
+		// Each symbol has room for counts up to 8, and the tiles are decoded as a grid of rows and columns
+		if (!minefield.getTopology().isRectangle())
+			throw new IllegalArgumentException("Only the classic rectangular grid can be encoded");
+		out.putByte(VERSION);
+		out.putByteVarint(minefield.getRowCount());
+		out.putByteVarint(minefield.getColumnCount());
+	}
+
+	private static void putSymbols(NibbleWriter out, Minefield minefield, long start, long end, boolean forceReveal) {
+		// The symbols of the tiles from start to end, in row-major order, with runs carrying on from one row into the next
+		int columns = minefield.getColumnCount();
+		int runSymbol = -1;
+		long runLength = 0;
+		long coord = start;
+		while (coord < end) {
+			int row = minefield.rowOf(coord);
+			MineTile[] rowTiles = minefield.getTileRow(row);
+			int lastCol = (int) Math.min(columns, minefield.columnOf(coord) + (end - coord));
+			for (int col = minefield.columnOf(coord); col < lastCol; col++, coord++) {
+				int symbol = symbolOf(rowTiles[col + 1], forceReveal);
+				if (symbol == runSymbol) {
+					runLength++;
+				} else {
+					putRun(out, runSymbol, runLength);
+					runSymbol = symbol;
+					runLength = 1;
+				}
+			}
+		}
+		putRun(out, runSymbol, runLength);
+	}
+
+	private static void putRun(NibbleWriter out, int symbol, long length) {
+		if (length >= MIN_RUN && (symbol == HIDDEN || symbol == 0)) {
+			out.put(symbol == HIDDEN ? HIDDEN_RUN : EMPTY_RUN);
+			out.putVarint(length - MIN_RUN);
+		} else {
+			for (long i = 0; i < length; i++) {
+				out.put(symbol);
+			}
+		}
+	}
+
+	public static DisplayBoard decode(byte[] encoded) {
+		NibbleReader in = new NibbleReader(encoded);
+		checkVersion(in);
+		int rows = getDimension(in);
+		int columns = getDimension(in);
+
+		byte[][] symbols = new byte[rows][columns];
+		getSymbols(in, symbols, columns, 0, (long) rows * columns);
+		return new DisplayBoard(rows, columns, symbols);
+	}
+
+	public static boolean decodeRanges(byte[] encoded, DisplayBoard board) {
+		/* Applies ranges encoded by encodeRanges on top of a board decoded earlier
+		   Returns false, leaving the board as it was, if the ranges were encoded from a different size of board */
+		NibbleReader in = new NibbleReader(encoded);
+		checkVersion(in);
+		int rows = getDimension(in);
+		int columns = getDimension(in);
+		if (rows != board.getRowCount() || columns != board.getColumnCount()) {
+			return false;
+		}
+
+		long tileCount = (long) rows * columns;
+		long rangeCount = in.getByteVarint();
+		for (long i = 0; i < rangeCount; i++) {
+			long start = in.getVarint();
+			long length = in.getVarint();
+			if (start < 0 || length < 0 || length > tileCount - start)
+				throw new IllegalArgumentException("Corrupt board encoding");
+			getSymbols(in, board.symbols, columns, start, start + length);
+		}
+		return true;
+	}
+
+	private static void checkVersion(NibbleReader in) {
+		int version = in.getByte();
+		if (version != VERSION)
+			throw new IllegalArgumentException("Unsupported board encoding version: " + version);
+	}
+
+	private static int getDimension(NibbleReader in) {
+		long dimension = in.getByteVarint();
+		if (dimension <= 0 || dimension > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Corrupt board encoding");
+		return (int) dimension;
+	}
+
+	private static void getSymbols(NibbleReader in, byte[][] symbols, int columns, long start, long end) {
+		long coord = start;
+		while (coord < end) {
+			int symbol = in.get();
+			long length = 1;
+			if (symbol == HIDDEN_RUN || symbol == EMPTY_RUN) {
+				length = in.getVarint() + MIN_RUN;
+				symbol = symbol == HIDDEN_RUN ? HIDDEN : 0;
+			} else if (symbol > HIDDEN) {
+				throw new IllegalArgumentException("Corrupt board encoding");
+			}
+			if (length > end - coord)
+				throw new IllegalArgumentException("Corrupt board encoding");
+
+			// Runs can carry on from one row into the next
+			for (long runEnd = coord + length; coord < runEnd; coord++) {
+				symbols[(int) (coord / columns)][(int) (coord % columns)] = (byte) symbol;
+			}
+		}
+	}
+
+	private static final class NibbleWriter {
+		private byte[] bytes;
+		private long nibbles = 0;
+
+		NibbleWriter(int initialCapacity) {
+			bytes = new byte[initialCapacity];
+		}
+
+		void put(int nibble) {
+			int index = (int) (nibbles >>> 1);
+			if (index == bytes.length) {
+				bytes = Arrays.copyOf(bytes, bytes.length * 2);
+			}
+			// The first nibble of each byte is the high one
+			if ((nibbles & 1) == 0) {
+				bytes[index] = (byte) (nibble << 4);
+			} else {
+				bytes[index] |= (byte) nibble;
+			}
+			nibbles++;
+		}
+
+		void putByte(int value) {
+			put((value >>> 4) & 0xF);
+			put(value & 0xF);
+		}
+
+		void putVarint(long value) {
+			while ((value & ~0x7L) != 0) {
+				put((int) (value & 0x7) | 0x8);
+				value >>>= 3;
+			}
+			put((int) value);
+		}
+
+		void putByteVarint(long value) {
+			while ((value & ~0x7FL) != 0) {
+				putByte((int) (value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			putByte((int) value);
+		}
+
+		byte[] toByteArray() {
+			// An odd nibble count leaves the last byte's low nibble as 0, which is never read
+			return Arrays.copyOf(bytes, (int) ((nibbles + 1) >>> 1));
+		}
+	}
+
+	private static final class NibbleReader {
+		private final byte[] bytes;
+		private long nibbles = 0;
+
+		NibbleReader(byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		int get() {
+			int index = (int) (nibbles >>> 1);
+			if (index >= bytes.length)
+				throw new IllegalArgumentException("Board encoding ends too early");
+			int nibble = (nibbles & 1) == 0 ? (bytes[index] >>> 4) & 0xF : bytes[index] & 0xF;
+			nibbles++;
+			return nibble;
+		}
+
+		int getByte() {
+			return (get() << 4) | get();
+		}
+
+		long getVarint() {
+			long value = 0;
+			int shift = 0;
+			int nibble;
+			do {
+				if (shift > 63)
+					throw new IllegalArgumentException("Corrupt board encoding");
+				nibble = get();
+				value |= (long) (nibble & 0x7) << shift;
+				shift += 3;
+			} while ((nibble & 0x8) != 0);
+			return value;
+		}
+
+		long getByteVarint() {
+			long value = 0;
+			int shift = 0;
+			int b;
+			do {
+				if (shift > 63)
+					throw new IllegalArgumentException("Corrupt board encoding");
+				b = getByte();
+				value |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return value;
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package minesweeper;
+
+import java.util.ArrayDeque;
+
+class BoardHistory {
+	/* Undo/redo over PersistentBoards
+	   Every version shares its unchanged blocks with the versions around it, so keeping the whole history is cheap */
+	private PersistentBoard current;
+	private final ArrayDeque<PersistentBoard> undoStack = new ArrayDeque<>();
+	private final ArrayDeque<PersistentBoard> redoStack = new ArrayDeque<>();
+
+	public BoardHistory(PersistentBoard initial) {
+		current = initial;
+	}
+
+	public PersistentBoard current() {
+		return current;
+	}
+
+	public PersistentBoard step(int row, int column) {
+		return apply(current.step(row, column));
+	}
+
+	public PersistentBoard mark(int row, int column) {
+		return apply(current.mark(row, column));
+	}
+
+	private PersistentBoard apply(PersistentBoard next) {
+		if (next != current) {
+			undoStack.push(current);
+			// A new move makes the redo history unreachable
+			redoStack.clear();
+			current = next;
+		}
+		return current;
+	}
+
+	public boolean canUndo() {
+		return !undoStack.isEmpty();
+	}
+
+	public boolean canRedo() {
+		return !redoStack.isEmpty();
+	}
+
+	public PersistentBoard undo() {
+		if (undoStack.isEmpty())
+			throw new IllegalStateException("Nothing to undo");
+
+		redoStack.push(current);
+		current = undoStack.pop();
+		return current;
+	}
+
+	public PersistentBoard redo() {
+		if (redoStack.isEmpty())
+			throw new IllegalStateException("Nothing to redo");
+
+		undoStack.push(current);
+		current = redoStack.pop();
+		return current;
+	}
+}
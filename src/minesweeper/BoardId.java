@@ -0,0 +1,153 @@
+package minesweeper;
+
+import java.util.Random;
+
+final class BoardId {
+	/* Everything needed to generate a board again, exactly: its size, mine count, seed and generator version
+	   Written as "<version>.<rows>x<columns>.<mines>.<seed>", with the seed in unsigned base 36, e.g. "1.16x30.99.2n9c8f0kxbvx"
+	   A game started from an ID places its mines at the first step, from the seed, keeping the tile stepped on and its
+	   neighbours clear (see Minefield.populateOnFirstStep). That tile is the board's opening, and is added to the ID
+	   as ".<row>x<column>", so the ID names the exact board played, e.g. "1.16x30.99.2n9c8f0kxbvx.8x12".
+	   The version is bumped whenever Minefield.populate would place different mines for the same seed and opening,
+	   so an old ID is rejected instead of silently giving a different board. */
+	static final int GENERATOR_VERSION = 1;
+
+	private final int version;
+	private final int rows;
+	private final int columns;
+	private final int mines;
+	private final long seed;
+	// The first tile stepped on, which is kept clear of mines, or -1 if the ID doesn't have one yet
+	private final int openingRow;
+	private final int openingColumn;
+
+	public BoardId(int rows, int columns, int mines, long seed) {
+		this(GENERATOR_VERSION, rows, columns, mines, seed, -1, -1);
+	}
+
+	private BoardId(int version, int rows, int columns, int mines, long seed, int openingRow, int openingColumn) {
+		// The same checks as the Minefield constructor, so every ID can be generated
+		if (version != GENERATOR_VERSION)
+			throw new IllegalArgumentException("Unsupported generator version " + version);
+		if (rows <= 0)
+			throw new IllegalArgumentException("Must have 1 or more rows");
+		if (columns <= 0)
+			throw new IllegalArgumentException("Must have 1 or more columns");
+		if ((long) rows * columns <= 1)
+			throw new IllegalArgumentException("Must be more than 1 tile");
+		if (mines < 0)
+			throw new IllegalArgumentException("Mines cannot be negative");
+		if (mines > (long) rows * columns - 1)
+			throw new IllegalArgumentException("More mines than tiles available (excluding (0,0))");
+		if ((openingRow < 0) != (openingColumn < 0) || openingRow >= rows || openingColumn >= columns)
+			throw new IllegalArgumentException("Opening out of range");
+
+		this.version = version;
+		this.rows = rows;
+		this.columns = columns;
+		this.mines = mines;
+		this.seed = seed;
+		this.openingRow = openingRow < 0 ? -1 : openingRow;
+		this.openingColumn = openingColumn < 0 ? -1 : openingColumn;
+	}
+
+	public static BoardId random(int rows, int columns, int mines) {
+		return new BoardId(rows, columns, mines, Minefield.random().nextLong());
+	}
+
+	public static BoardId parse(String id) {
+		String[] parts = id.split("\\.", -1);
+		String[] size = parts.length == 4 || parts.length == 5 ? parts[1].split("x", -1) : null;
+		String[] opening = parts.length == 5 ? parts[4].split("x", -1) : new String[] { "-1", "-1" };
+		if (size == null || size.length != 2 || opening.length != 2)
+			throw new IllegalArgumentException("Not a board ID: " + id);
+		try {
+			int openingRow = Integer.parseInt(opening[0]);
+			int openingColumn = Integer.parseInt(opening[1]);
+			if (parts.length == 5 && (openingRow < 0 || openingColumn < 0))
+				throw new IllegalArgumentException("Not a board ID: " + id);
+			return new BoardId(Integer.parseInt(parts[0]), Integer.parseInt(size[0]), Integer.parseInt(size[1]),
+				Integer.parseInt(parts[2]), Long.parseUnsignedLong(parts[3], 36), openingRow, openingColumn);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Not a board ID: " + id, e);
+		}
+	}
+
+	public BoardId withOpening(int row, int column) {
+		// The board this ID gives when its first step is on (row, column)
+		if (row < 0 || column < 0)
+			throw new IllegalArgumentException("Opening out of range");
+		return new BoardId(version, rows, columns, mines, seed, row, column);
+	}
+
+	Random newRandom() {
+		// Version 1 boards are generated by java.util.Random, whose algorithm is fixed by its specification
+		return new Random(seed);
+	}
+
+	public Minefield generate() {
+		// The board's mines, with none of it revealed yet. Without an opening, only (0,0) is kept clear.
+		Minefield minefield = new Minefield(rows, columns, mines);
+		minefield.populate(this);
+		return minefield;
+	}
+
+	public int getVersion() {
+		return version;
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public int getColumns() {
+		return columns;
+	}
+
+	public int getMines() {
+		return mines;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public boolean hasOpening() {
+		return openingRow >= 0;
+	}
+
+	public int getOpeningRow() {
+		return openingRow;
+	}
+
+	public int getOpeningColumn() {
+		return openingColumn;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof BoardId)) {
+			return false;
+		}
+		BoardId other = (BoardId) o;
+		return version == other.version && rows == other.rows && columns == other.columns && mines == other.mines
+			&& seed == other.seed && openingRow == other.openingRow && openingColumn == other.openingColumn;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = version;
+		hash = 31 * hash + rows;
+		hash = 31 * hash + columns;
+		hash = 31 * hash + mines;
+		hash = 31 * hash + Long.hashCode(seed);
+		hash = 31 * hash + openingRow;
+		return 31 * hash + openingColumn;
+	}
+
+	@Override
+	public String toString() {
+		String id = version + "." + rows + "x" + columns + "." + mines + "." + Long.toUnsignedString(seed, 36);
+		return hasOpening() ? id + "." + openingRow + "x" + openingColumn : id;
+	}
+}
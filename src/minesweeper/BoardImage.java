@@ -0,0 +1,227 @@
+package minesweeper;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+final class BoardImage {
+	/* Exports a board as a PNG image, for looking over boards far too big for toString
+	   Every tile is a square block of pixels coloured by its BoardCodec symbol, which is also its palette index,
+	   so the image is 8-bit indexed colour. Nothing the size of the image is ever held in memory: the rows are split
+	   into bands, each band's scanlines are rendered and deflated on a worker thread, and the bands are written
+	   as they finish, in order. Each band is deflated on its own and ends on a sync flush, so the compressed bands
+	   join into a single zlib stream, and their checksums are combined the same way. */
+	static final int BAND_ROWS = 64;
+
+	// One colour per BoardCodec symbol: empty, 1-8, mine, marked, hidden
+	private static final int[] PALETTE = {
+		0xE0E0E0, 0x1E40FF, 0x1E8C1E, 0xE01E1E, 0x000080, 0x800000, 0x008080, 0x202020, 0x808080,
+		0xFF00FF, 0xFFC000, 0x606060
+	};
+
+	private static final byte[] SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+
+	// The largest width or height a PNG can have
+	private static final long MAX_DIMENSION = Integer.MAX_VALUE;
+
+	private interface SymbolSource {
+		// Fill symbols with the BoardCodec symbol of each tile on this row
+		void row(int row, byte[] symbols);
+	}
+
+	private BoardImage() {
+	}
+
+	public static void writePng(Minefield minefield, boolean forceReveal, int tileSize, OutputStream out) throws IOException {
+		// The board mustn't be played while it's being exported, as the bands read its tiles from other threads
+		if (!minefield.getTopology().isRectangle())
+			throw new IllegalArgumentException("Only the classic rectangular grid can be drawn");
+		writePng(minefield.getRowCount(), minefield.getColumnCount(), tileSize, out, (row, symbols) -> {
+			MineTile[] rowTiles = minefield.getTileRow(row);
+			for (int col = 0; col < symbols.length; col++) {
+				symbols[col] = (byte) BoardCodec.symbolOf(rowTiles[col + 1], forceReveal);
+			}
+		});
+	}
+
+	public static void writePng(DisplayBoard board, int tileSize, OutputStream out) throws IOException {
+		// A board decoded by BoardCodec, such as one stored with a finished game
+		writePng(board.getRowCount(), board.getColumnCount(), tileSize, out, (row, symbols) -> {
+			for (int col = 0; col < symbols.length; col++) {
+				symbols[col] = (byte) board.getSymbol(row, col);
+			}
+		});
+	}
+
+	private static void writePng(int rows, int columns, int tileSize, OutputStream out, SymbolSource source) throws IOException {
+		if (tileSize <= 0)
+			throw new IllegalArgumentException("Tiles must be 1 or more pixels across");
+		if ((long) columns * tileSize > MAX_DIMENSION || (long) rows * tileSize > MAX_DIMENSION)
+			throw new IllegalArgumentException("Too big for a PNG at " + tileSize + " pixels a tile");
+
+		DataOutputStream png = new DataOutputStream(out);
+		png.write(SIGNATURE);
+
+		ByteBuffer header = ByteBuffer.allocate(13);
+		header.putInt(columns * tileSize);
+		header.putInt(rows * tileSize);
+		header.put((byte) 8); // Bits per pixel
+		header.put((byte) 3); // Indexed colour
+		header.put((byte) 0); // Deflate
+		header.put((byte) 0); // Adaptive filtering
+		header.put((byte) 0); // Not interlaced
+		writeChunk(png, "IHDR", header.array(), header.position());
+
+		ByteBuffer palette = ByteBuffer.allocate(PALETTE.length * 3);
+		for (int colour : PALETTE) {
+			palette.put((byte) (colour >>> 16));
+			palette.put((byte) (colour >>> 8));
+			palette.put((byte) colour);
+		}
+		writeChunk(png, "PLTE", palette.array(), palette.position());
+
+		// The zlib header: deflate with a 32K window and the default level, then the bands, then the combined Adler-32
+		writeChunk(png, "IDAT", new byte[] { 0x78, (byte) 0x9C }, 2);
+		int bandCount = (rows + BAND_ROWS - 1) / BAND_ROWS;
+		int threads = Runtime.getRuntime().availableProcessors();
+		ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "minesweeper-png");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			// Only a couple of bands per thread are in flight at once, which bounds the memory used
+			ArrayDeque<Future<Band>> pending = new ArrayDeque<>();
+			int nextBand = 0;
+			long adler = 1;
+			while (nextBand < bandCount || !pending.isEmpty()) {
+				while (nextBand < bandCount && pending.size() < threads * 2) {
+					int firstRow = nextBand * BAND_ROWS;
+					int lastRow = Math.min(firstRow + BAND_ROWS, rows);
+					boolean last = ++nextBand == bandCount;
+					pending.add(workers.submit(() -> renderBand(source, firstRow, lastRow, columns, tileSize, last)));
+				}
+				Band band = await(pending.poll());
+				writeChunk(png, "IDAT", band.compressed, band.compressedLength);
+				adler = combineAdler32(adler, band.adler, band.length);
+			}
+			writeChunk(png, "IDAT", ByteBuffer.allocate(4).putInt((int) adler).array(), 4);
+		} finally {
+			workers.shutdownNow();
+		}
+
+		writeChunk(png, "IEND", new byte[0], 0);
+		png.flush();
+	}
+
+	private static final class Band {
+		final byte[] compressed;
+		final int compressedLength;
+		final long adler;
+		// The number of bytes before compression
+		final long length;
+
+		Band(byte[] compressed, int compressedLength, long adler, long length) {
+			this.compressed = compressed;
+			this.compressedLength = compressedLength;
+			this.adler = adler;
+			this.length = length;
+		}
+	}
+
+	private static Band renderBand(SymbolSource source, int firstRow, int lastRow, int columns, int tileSize, boolean last) {
+		// Each scanline is a filter byte (0, none) followed by one palette index per pixel
+		byte[] symbols = new byte[columns];
+		byte[] scanline = new byte[1 + columns * tileSize];
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		Adler32 adler = new Adler32();
+		byte[] compressed = new byte[Math.max(scanline.length / 4, 64)];
+		int compressedLength = 0;
+		try {
+			for (int row = firstRow; row < lastRow; row++) {
+				source.row(row, symbols);
+				for (int col = 0; col < columns; col++) {
+					Arrays.fill(scanline, 1 + col * tileSize, 1 + (col + 1) * tileSize, symbols[col]);
+				}
+				for (int pixelRow = 0; pixelRow < tileSize; pixelRow++) {
+					adler.update(scanline, 0, scanline.length);
+					deflater.setInput(scanline);
+					while (!deflater.needsInput()) {
+						compressed = ensureSpace(compressed, compressedLength);
+						compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+					}
+				}
+			}
+
+			// Only the last band finishes the stream, the others end on a byte boundary so the next can follow
+			if (last) {
+				deflater.finish();
+				while (!deflater.finished()) {
+					compressed = ensureSpace(compressed, compressedLength);
+					compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+				}
+			} else {
+				int written;
+				do {
+					compressed = ensureSpace(compressed, compressedLength);
+					written = deflater.deflate(compressed, compressedLength, compressed.length - compressedLength, Deflater.SYNC_FLUSH);
+					compressedLength += written;
+				} while (compressedLength == compressed.length);
+			}
+			return new Band(compressed, compressedLength, adler.getValue(), (long) (lastRow - firstRow) * tileSize * scanline.length);
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private static byte[] ensureSpace(byte[] buffer, int used) {
+		return used < buffer.length ? buffer : Arrays.copyOf(buffer, buffer.length * 2);
+	}
+
+	static long combineAdler32(long adler1, long adler2, long length2) {
+		// The Adler-32 of two pieces of data joined together, from each piece's Adler-32 (zlib's adler32_combine)
+		final long base = 65521;
+		long remainder = length2 % base;
+		long sum1 = adler1 & 0xFFFF;
+		long sum2 = (remainder * sum1) % base;
+		sum1 += (adler2 & 0xFFFF) + base - 1;
+		sum2 += ((adler1 >>> 16) & 0xFFFF) + ((adler2 >>> 16) & 0xFFFF) + base - remainder;
+		sum1 %= base;
+		sum2 %= base;
+		return sum1 | (sum2 << 16);
+	}
+
+	private static Band await(Future<Band> band) throws IOException {
+		try {
+			return band.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted exporting the image", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Couldn't render the image", e.getCause());
+		}
+	}
+
+	private static void writeChunk(DataOutputStream png, String type, byte[] data, int length) throws IOException {
+		// Length, type, data, then a CRC-32 of the type and data
+		byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+		CRC32 crc = new CRC32();
+		crc.update(typeBytes);
+		crc.update(data, 0, length);
+		png.writeInt(length);
+		png.write(typeBytes);
+		png.write(data, 0, length);
+		png.writeInt((int) crc.getValue());
+	}
+}
@@ -0,0 +1,244 @@
+package minesweeper;
+
+abstract class BoardKernels {
+	/* The word-parallel kernels treat each long as 64 tiles, and the scalar kernels visit one tile at a time.
+	   The vector kernels do what the word kernels do, several words at a time, but they need the incubating
+	   jdk.incubator.vector API. So they live in src-vector/, which is only built by JDK 16 or later, and are loaded here by
+	   name. VECTOR is null if they weren't built, the JVM wasn't started with --add-modules jdk.incubator.vector,
+	   or they turned themselves down because this JVM can't compile them into wide vector instructions.
+	   All of them give identical results, the scalar ones exist as a simple reference and a fallback. */
+	static final BoardKernels WORD = new WordKernels();
+	static final BoardKernels SCALAR = new ScalarKernels();
+	static final BoardKernels VECTOR = loadVector();
+
+	/* The kernels in use are chosen once, when this class is loaded, and kept in a static final field.
+	   This means the JIT only ever sees one implementation at each call site and can inline it.
+	   By default these are the fastest kernels this JVM can run: the vector kernels if it can, otherwise the word kernels.
+	   Run with -Dminesweeper.kernels=vector, word or scalar to choose them yourself. */
+	private static final BoardKernels KERNELS = select(System.getProperty("minesweeper.kernels"));
+
+	static BoardKernels get() {
+		return KERNELS;
+	}
+
+	static BoardKernels select(String name) {
+		if (name == null) {
+			return VECTOR != null ? VECTOR : WORD;
+		} else if (name.equals("vector")) {
+			if (VECTOR == null)
+				throw new IllegalArgumentException("The vector kernels aren't available on this JVM");
+			return VECTOR;
+		} else if (name.equals("word")) {
+			return WORD;
+		} else if (name.equals("scalar")) {
+			return SCALAR;
+		} else {
+			throw new IllegalArgumentException("Unknown board kernels: " + name);
+		}
+	}
+
+	private static BoardKernels loadVector() {
+		try {
+			Class<?> kernels = Class.forName("minesweeper.VectorKernels", true, BoardKernels.class.getClassLoader());
+			return (BoardKernels) kernels.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			// Built without src-vector/, running without jdk.incubator.vector, or the constructor turned this JVM down
+			return null;
+		}
+	}
+
+	// Compute the mine neighbour count of every tile, bit-sliced into 4 planes (1, 2, 4 and 8) of per-row bitsets
+	abstract long[][][] neighbourPlanes(long[][] mines, int columns);
+
+	// Whether a and b are identical, i.e. no tile is mined XOR marked
+	abstract boolean noMismatches(long[][] a, long[][] b);
+
+	// Count the tiles which are set in exactly one of a and b
+	abstract long countMismatches(long[][] a, long[][] b);
+
+	// Count the tiles which are set, e.g. the revealed tiles
+	abstract long countBits(long[][] bits);
+
+	static long lastWordMask(int columns) {
+		// Mask of the columns actually in use in the last word of each row
+		int words = (columns + 63) >>> 6;
+		return -1L >>> (64 * words - columns);
+	}
+
+	static long shiftedWest(long[] bits, int word) {
+		// Bit c of the result is bit (c - 1) of bits, i.e. every tile sees its west neighbour
+		long carry = word > 0 ? bits[word - 1] >>> 63 : 0;
+		return (bits[word] << 1) | carry;
+	}
+
+	static long shiftedEast(long[] bits, int word, long lastWordMask) {
+		// Bit c of the result is bit (c + 1) of bits, i.e. every tile sees its east neighbour
+		int words = bits.length;
+		long carry = word < words - 1 ? bits[word + 1] << 63 : 0;
+		long shifted = (bits[word] >>> 1) | carry;
+		return word == words - 1 ? shifted & lastWordMask : shifted;
+	}
+
+	static void countNeighbours(long[][] mines, int row, int word, long lastWordMask, long[][][] planes) {
+		// Count the mined neighbours of the 64 tiles in one word of one row into the planes
+		int rows = mines.length;
+		// A bit-sliced 4-bit counter for each of the 64 tiles in this word
+		long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		for (int neighbourRow = row - 1; neighbourRow <= row + 1; neighbourRow++) {
+			if (neighbourRow < 0 || neighbourRow >= rows) {
+				continue;
+			}
+			long[] neighbourBits = mines[neighbourRow];
+			for (int direction = 0; direction < 3; direction++) {
+				long add;
+				if (direction == 0) {
+					add = shiftedWest(neighbourBits, word);
+				} else if (direction == 1) {
+					add = shiftedEast(neighbourBits, word, lastWordMask);
+				} else if (neighbourRow != row) {
+					add = neighbourBits[word];
+				} else {
+					// A tile isn't its own neighbour
+					continue;
+				}
+				// Ripple-carry add the 1-bit input into the 4-bit counter, for all 64 tiles at once
+				long carry0 = s0 & add;
+				s0 ^= add;
+				long carry1 = s1 & carry0;
+				s1 ^= carry0;
+				long carry2 = s2 & carry1;
+				s2 ^= carry1;
+				// There can be at most 8 neighbours, so the 8s bit can never carry
+				s3 |= carry2;
+			}
+		}
+		planes[0][row][word] = s0;
+		planes[1][row][word] = s1;
+		planes[2][row][word] = s2;
+		planes[3][row][word] = s3;
+	}
+
+	private static final class WordKernels extends BoardKernels {
+		@Override
+		long[][][] neighbourPlanes(long[][] mines, int columns) {
+			int rows = mines.length;
+			int words = (columns + 63) >>> 6;
+			long lastWordMask = lastWordMask(columns);
+			long[][][] planes = new long[4][rows][words];
+			for (int row = 0; row < rows; row++) {
+				for (int word = 0; word < words; word++) {
+					countNeighbours(mines, row, word, lastWordMask, planes);
+				}
+			}
+			return planes;
+		}
+
+		@Override
+		boolean noMismatches(long[][] a, long[][] b) {
+			// Stop at the first word that has a mismatch in it
+			for (int row = 0; row < a.length; row++) {
+				long[] aRow = a[row];
+				long[] bRow = b[row];
+				for (int word = 0; word < aRow.length; word++) {
+					if ((aRow[word] ^ bRow[word]) != 0) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+
+		@Override
+		long countMismatches(long[][] a, long[][] b) {
+			// Long.bitCount is a JIT intrinsic, which compiles to a single POPCNT instruction on x86-64
+			long count = 0;
+			for (int row = 0; row < a.length; row++) {
+				long[] aRow = a[row];
+				long[] bRow = b[row];
+				for (int word = 0; word < aRow.length; word++) {
+					count += Long.bitCount(aRow[word] ^ bRow[word]);
+				}
+			}
+			return count;
+		}
+
+		@Override
+		long countBits(long[][] bits) {
+			long count = 0;
+			for (int row = 0; row < bits.length; row++) {
+				long[] bitsRow = bits[row];
+				for (int word = 0; word < bitsRow.length; word++) {
+					count += Long.bitCount(bitsRow[word]);
+				}
+			}
+			return count;
+		}
+	}
+
+	private static final class ScalarKernels extends BoardKernels {
+		private static boolean get(long[] bits, int column) {
+			return (bits[column >>> 6] & (1L << column)) != 0;
+		}
+
+		@Override
+		long[][][] neighbourPlanes(long[][] mines, int columns) {
+			int rows = mines.length;
+			int words = (columns + 63) >>> 6;
+			long[][][] planes = new long[4][rows][words];
+			// The neighbours are the ones Minefield uses, from the rectangle topology
+			Topology topology = Topology.rectangle(rows, columns);
+			int[] neighbourRows = new int[topology.getMaxNeighbours()];
+			int[] neighbourColumns = new int[topology.getMaxNeighbours()];
+			for (int row = 0; row < rows; row++) {
+				for (int col = 0; col < columns; col++) {
+					// Count the mined neighbours of this tile one by one
+					int count = 0;
+					int neighbourCount = topology.neighbours(row, col, neighbourRows, neighbourColumns);
+					for (int neighbour = 0; neighbour < neighbourCount; neighbour++) {
+						if (get(mines[neighbourRows[neighbour]], neighbourColumns[neighbour])) {
+							count++;
+						}
+					}
+					// Then scatter the count's bits into the planes
+					for (int plane = 0; plane < 4; plane++) {
+						if ((count & (1 << plane)) != 0) {
+							planes[plane][row][col >>> 6] |= 1L << col;
+						}
+					}
+				}
+			}
+			return planes;
+		}
+
+		@Override
+		boolean noMismatches(long[][] a, long[][] b) {
+			return countMismatches(a, b) == 0;
+		}
+
+		@Override
+		long countMismatches(long[][] a, long[][] b) {
+			long count = 0;
+			for (int row = 0; row < a.length; row++) {
+				for (int col = 0; col < a[row].length * 64; col++) {
+					if (get(a[row], col) ^ get(b[row], col)) {
+						count++;
+					}
+				}
+			}
+			return count;
+		}
+
+		@Override
+		long countBits(long[][] bits) {
+			long count = 0;
+			for (int row = 0; row < bits.length; row++) {
+				for (int col = 0; col < bits[row].length * 64; col++) {
+					if (get(bits[row], col)) {
+						count++;
+					}
+				}
+			}
+			return count;
+		}
+	}
+}
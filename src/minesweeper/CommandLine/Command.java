@@ -13,6 +13,7 @@ public class Command {
 	private int row = 0;
 	private int column = 0;
 	private String msg = "";
+	private String boardId = "";
 	
 	/**
 	 * Initialise with a Command and a message (which may be empty)
@@ -50,6 +51,18 @@ public class Command {
 		this.column = column;
 	}
 
+	/**
+	 * For the play command, which starts the board with the given ID
+	 * @param command
+	 * @param msg
+	 * @param boardId
+	 */
+	public Command(CommandWord command, String msg, String boardId) {
+		this.command = command;
+		this.msg = msg;
+		this.boardId = boardId;
+	}
+
 	@Override
 	public String toString() {
 		return "Command " + command + ", row=" + row + ", column="
@@ -99,6 +112,14 @@ public class Command {
 	public void setColumn(int column) {
 		this.column = column;
 	}
+
+	/**
+	 * Valid for the play command
+	 * @return The ID of the board to play
+	 */
+	public String getBoardId() {
+		return boardId;
+	}
 	
 	
 	
@@ -15,6 +15,8 @@ public enum CommandWord {
 	MARK("mark"),
 	STEP("step"),
 	NEW("new"),
+	CHORD("chord"),
+	PLAY("play"),
 	UNKNOWN("unknown");
 	
 	private String word;
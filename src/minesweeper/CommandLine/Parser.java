@@ -35,6 +35,11 @@ public class Parser {
                 return new Command(cw, "Unknown command: " + str);
             } else if (cw == CommandWord.QUIT) {
                 return new Command(cw, "Bye bye");
+            } else if (cw == CommandWord.PLAY) {
+                if (scanner.hasNext()) {
+                    return new Command(cw, "", scanner.next());
+                }
+                return new Command(CommandWord.UNKNOWN, cw.getWord() + " needs a board ID");
             } else {
                 if (scanner.hasNextInt()) {
                     int row = scanner.nextInt();
@@ -1,91 +1,244 @@
-package minesweeper;
-
-import minesweeper.CommandLine.Command;
-import minesweeper.CommandLine.CommandWord;
-import minesweeper.CommandLine.Parser;
-
-public class CommandLineListener {
-	private Minefield minefield;
-	
-	Parser parser = new Parser();
-	
-	private boolean checkBounds(int row, int column) {
-		boolean rowOutOfBounds = row >= minefield.getRowCount();
-		boolean columnOutOfBounds = column >= minefield.getColumnCount();
-		if (rowOutOfBounds && columnOutOfBounds) {
-			System.out.println("Row and column out of bounds!");
-			return false;
-		} else if (rowOutOfBounds) {
-			System.out.println("Row out of bounds!");
-			return false;
-		} else if (columnOutOfBounds) {
-			System.out.println("Column out of bounds!");
-			return false;
-		}
-		return true;
-	}
-	
-	private boolean checkWin() {
-		if (minefield.areAllMinesRevealed()) {
-			System.out.println("You've revealed & marked all mines, and haven't incorrectly marked any tiles.");
-			System.out.println("Congratulations - you win!");
-			System.out.println(minefield.toString(true));
-			minefield = null;
-			return true;
-		}
-		return false;
-	}
-	
-	private void execute(Command c) {
-		if (c.getCommand() == CommandWord.UNKNOWN) {
-			printPrompt(c.getMsg());
-		} else if (c.getCommand() != CommandWord.NEW && minefield == null) {
-			printPrompt("Please start a game first");
-		} else {
-			switch(c.getCommand()) {
-				case NEW:
-					int mineCount = Math.max((int)(c.getRow() * c.getColumn() * .1), 1);
-					minefield = Minesweeper.newGame(c.getRow(), c.getColumn(), mineCount);
-					System.out.println(minefield.toString());
-					break;
-
-				case STEP:
-					if (checkBounds(c.getRow(), c.getColumn())) {
-						if (!minefield.step(c.getRow(), c.getColumn())) {
-							System.out.println("You stepped on a mine! GAME OVER");
-							System.out.println(minefield.toString(true));
-							minefield = null;
-						} else if (!checkWin()) {
-							System.out.println(minefield.toString());
-						}
-					}
-					break;
-
-				case MARK:
-					if (checkBounds(c.getRow(), c.getColumn())) {
-						minefield.markTile(c.getRow(), c.getColumn());
-						if (!checkWin()) {
-							System.out.println(minefield.toString());
-						}
-					}
-					break;
-			}
-			printPrompt(c.getMsg());
-		}
-	}
-	
-	private void printPrompt(String msg) {
-		System.out.println(msg);
-		System.out.print(">");
-	}
-	
-	public CommandLineListener() {
-		printPrompt("New Game");
-		Command c = parser.getCommand();
-		while (c.getCommand() != CommandWord.QUIT) {
-			execute(c);
-			c = parser.getCommand();
-		}
-		System.out.println(c.getMsg());
-	}
-}
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import minesweeper.CommandLine.Command;
+import minesweeper.CommandLine.CommandWord;
+import minesweeper.CommandLine.Parser;
+import minesweeper.Metrics.MetricsRegistry;
+import minesweeper.Results.GameResult;
+import minesweeper.Results.ResultsStore;
+
+public class CommandLineListener {
+	private Minefield minefield;
+	
+	/* Every finished game is recorded here, but only when run with -Dminesweeper.results=<directory>
+	   Each result is synced to disk as it's appended, so nothing is written anywhere unless asked for */
+	private ResultsStore results;
+	private long gameStartMillis;
+	private int moves;
+	
+	/* Output goes through a pipeline, so a slow console doesn't hold up the game
+	   Each command's output is collected here, then handed over as one frame */
+	private final OutputPipeline output = new OutputPipeline();
+	private final StringBuilder frame = new StringBuilder();
+	private boolean frameReplaceable;
+	
+	Parser parser = new Parser();
+	
+	private boolean checkBounds(int row, int column) {
+		boolean rowOutOfBounds = row >= minefield.getRowCount();
+		boolean columnOutOfBounds = column >= minefield.getColumnCount();
+		if (rowOutOfBounds && columnOutOfBounds) {
+			println("Row and column out of bounds!");
+			return false;
+		} else if (rowOutOfBounds) {
+			println("Row out of bounds!");
+			return false;
+		} else if (columnOutOfBounds) {
+			println("Column out of bounds!");
+			return false;
+		}
+		return true;
+	}
+	
+	private boolean checkWin() {
+		if (minefield.areAllMinesRevealed()) {
+			println("You've revealed & marked all mines, and haven't incorrectly marked any tiles.");
+			println("Congratulations - you win!");
+			println(minefield.toString(true));
+			finishGame(true);
+			return true;
+		}
+		return false;
+	}
+	
+	private void finishGame(boolean won) {
+		BoardId id = minefield.getBoardId();
+		if (id != null && id.hasOpening()) {
+			// The ID now includes the first step, so it names exactly this board
+			println("Replay this board with: play " + id);
+		}
+		if (results != null) {
+			GameResult result = new GameResult(minefield.getRowCount(), minefield.getColumnCount(), minefield.getMineCount(),
+				id == null ? 0 : id.getSeed(), moves, System.currentTimeMillis() - gameStartMillis, won);
+			try {
+				results.append(result);
+			} catch (IOException e) {
+				printError("Couldn't record the game's result: " + e);
+			}
+		}
+		minefield = null;
+	}
+	
+	private void startGame() {
+		gameStartMillis = System.currentTimeMillis();
+		moves = 0;
+		if (minefield.getBoardId() != null) {
+			// Anyone can play the same board with "play <ID>", and gets the same mines if they start in the same place
+			println("Board " + minefield.getBoardId());
+		}
+		println(minefield.toString());
+	}
+	
+	private void openResults() {
+		String directory = System.getProperty("minesweeper.results");
+		if (directory == null) {
+			return;
+		}
+		try {
+			results = new ResultsStore(Paths.get(directory));
+		} catch (IOException e) {
+			// Keeping results is optional, so carry on without them
+			printError("Couldn't open the results store: " + e);
+		}
+	}
+	
+	private void execute(Command c) {
+		if (MetricsRegistry.ENABLED) {
+			EngineMetrics.COMMANDS.increment();
+		}
+		
+		if (c.getCommand() == CommandWord.UNKNOWN) {
+			printPrompt(c.getMsg());
+		} else if (c.getCommand() != CommandWord.NEW && c.getCommand() != CommandWord.PLAY && minefield == null) {
+			printPrompt("Please start a game first");
+		} else {
+			switch(c.getCommand()) {
+				case NEW:
+					int mineCount = Math.max((int)((long) c.getRow() * c.getColumn() * .1), 1);
+					minefield = Minesweeper.newGame(c.getRow(), c.getColumn(), mineCount);
+					startGame();
+					break;
+
+				case PLAY:
+					BoardId id;
+					try {
+						id = BoardId.parse(c.getBoardId());
+					} catch (IllegalArgumentException e) {
+						println(e.getMessage());
+						break;
+					}
+					minefield = Minesweeper.newGame(id);
+					startGame();
+					break;
+
+				case STEP:
+					if (checkBounds(c.getRow(), c.getColumn())) {
+						moves++;
+						if (!minefield.step(c.getRow(), c.getColumn())) {
+							println("You stepped on a mine! GAME OVER");
+							println(minefield.toString(true));
+							finishGame(false);
+						} else if (!checkWin()) {
+							println(minefield.toString());
+							frameReplaceable = true;
+						}
+					}
+					break;
+
+				case CHORD:
+					if (checkBounds(c.getRow(), c.getColumn())) {
+						// Reveal every unmarked neighbour of a satisfied number in one go
+						long revealedBefore = minefield.getRevealedCount();
+						boolean survived = minefield.chord(c.getRow(), c.getColumn());
+						// Chording anything else does nothing, which isn't a move
+						if (!survived || minefield.getRevealedCount() > revealedBefore) {
+							moves++;
+						}
+						if (!survived) {
+							println("You stepped on a mine! GAME OVER");
+							println(minefield.toString(true));
+							finishGame(false);
+						} else if (!checkWin()) {
+							println(minefield.toString());
+							frameReplaceable = true;
+						}
+					}
+					break;
+
+				case MARK:
+					if (checkBounds(c.getRow(), c.getColumn())) {
+						moves++;
+						minefield.markTile(c.getRow(), c.getColumn());
+						if (!checkWin()) {
+							println(minefield.toString());
+							frameReplaceable = true;
+						}
+					}
+					break;
+			}
+			printPrompt(c.getMsg());
+		}
+	}
+	
+	private void println(String line) {
+		frame.append(line).append('\n');
+	}
+	
+	private void printPrompt(String msg) {
+		println(msg);
+		frame.append('>');
+	}
+	
+	private void submitFrame() {
+		try {
+			output.submit(frame.toString(), frameReplaceable);
+		} catch (IOException e) {
+			// The pipeline has stopped, so there's nothing left to keep this in order with
+			System.err.println("Couldn't write to the console: " + e);
+		}
+		frame.setLength(0);
+		frameReplaceable = false;
+	}
+	
+	private void printError(String message) {
+		// Everything printed before this has to reach the console first, or the error could show up ahead of it
+		submitFrame();
+		try {
+			output.flush();
+		} catch (IOException e) {
+			System.err.println("Couldn't write to the console: " + e);
+		}
+		System.err.println(message);
+	}
+	
+	public CommandLineListener() {
+		openResults();
+		printPrompt("New Game");
+		submitFrame();
+		
+		/* Seed the shared SecureRandom in the background while the player types their first command
+		   This starts after the prompt is shown, so it doesn't compete with starting up */
+		Thread warmUp = new Thread(Minefield::random, "minesweeper-warm-up");
+		warmUp.setDaemon(true);
+		warmUp.start();
+		
+		/* The output thread is a daemon, so anything still queued would be lost if this thread stopped without
+		   closing it: at the end of the input, or on an exception out of a command. Closing it writes everything first. */
+		try {
+			Command c = parser.getCommand();
+			while (c.getCommand() != CommandWord.QUIT) {
+				execute(c);
+				submitFrame();
+				c = parser.getCommand();
+			}
+			println(c.getMsg());
+		} finally {
+			submitFrame();
+			try {
+				output.close();
+			} catch (IOException e) {
+				System.err.println("Couldn't write to the console: " + e);
+			}
+			
+			if (results != null) {
+				try {
+					results.close();
+				} catch (IOException e) {
+					System.err.println("Couldn't close the results store: " + e);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package minesweeper;
+
+final class DisplayBoard {
+	/* What a player could see of a Minefield, rebuilt by BoardCodec.decode
+	   It only knows each tile's symbol, so it can be shown but not played */
+	private final int rows;
+	private final int columns;
+	// BoardCodec symbols, one array per row like Minefield's tiles, which BoardCodec.decodeRanges updates in place
+	final byte[][] symbols;
+
+	DisplayBoard(int rows, int columns, byte[][] symbols) {
+		this.rows = rows;
+		this.columns = columns;
+		this.symbols = symbols;
+	}
+
+	public int getRowCount() {
+		return rows;
+	}
+
+	public int getColumnCount() {
+		return columns;
+	}
+
+	public int getSymbol(int row, int column) {
+		return symbols[row][column];
+	}
+
+	public char getTile(int row, int column) {
+		return BoardCodec.charOf(symbols[row][column]);
+	}
+
+	public boolean isHidden(int row, int column) {
+		return symbols[row][column] == BoardCodec.HIDDEN;
+	}
+
+	public boolean isMarked(int row, int column) {
+		return symbols[row][column] == BoardCodec.MARKED;
+	}
+
+	@Override
+	public String toString() {
+		// Rendered exactly like Minefield.toString
+		StringBuilder boardStr = new StringBuilder();
+		Minefield.appendColumnHeader(boardStr, rows, columns);
+		for (int row = 0; row < rows; row++) {
+			Minefield.appendRowLabel(boardStr, row, rows);
+			for (int column = 0; column < columns; column++) {
+				boardStr.append(getTile(row, column));
+			}
+			if (row != rows - 1) {
+				boardStr.append('\n');
+			}
+		}
+		return boardStr.toString();
+	}
+}
@@ -0,0 +1,20 @@
+package minesweeper;
+
+import minesweeper.Metrics.Counter;
+import minesweeper.Metrics.Histogram;
+import minesweeper.Metrics.MetricsRegistry;
+
+final class EngineMetrics {
+	// The metrics recorded by Minefield and CommandLineListener, only when MetricsRegistry.ENABLED
+	static final Histogram STEP_LATENCY = MetricsRegistry.histogram("step.latency", "ns");
+	static final Histogram STEP_CELLS_REVEALED = MetricsRegistry.histogram("step.cellsRevealed", "tiles");
+	static final Histogram FLOOD_FILL_PEAK_DEPTH = MetricsRegistry.histogram("step.floodFillPeakDepth", "tiles");
+	static final Histogram GENERATION_BRUTEFORCE = MetricsRegistry.histogram("populate.bruteforce.time", "ns");
+	static final Histogram GENERATION_FISHER_YATES = MetricsRegistry.histogram("populate.fisherYates.time", "ns");
+	static final Histogram RENDER_BYTES = MetricsRegistry.histogram("render.bytes", "bytes");
+	static final Histogram RENDER_TIME = MetricsRegistry.histogram("render.time", "ns");
+	static final Counter COMMANDS = MetricsRegistry.counter("commands");
+
+	private EngineMetrics() {
+	}
+}
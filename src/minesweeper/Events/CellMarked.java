@@ -0,0 +1,31 @@
+package minesweeper.Events;
+
+public class CellMarked extends MinefieldEvent {
+	private final int row;
+	private final int column;
+	private final boolean marked;
+
+	public CellMarked(int row, int column, boolean marked) {
+		this.row = row;
+		this.column = column;
+		this.marked = marked;
+	}
+
+	public int getRow() {
+		return row;
+	}
+
+	public int getColumn() {
+		return column;
+	}
+
+	// Whether the tile is now marked, or has just been unmarked
+	public boolean isMarked() {
+		return marked;
+	}
+
+	@Override
+	public String toString() {
+		return "CellMarked (" + row + "," + column + ") marked=" + marked;
+	}
+}
@@ -0,0 +1,62 @@
+package minesweeper.Events;
+
+public class CellRevealed extends MinefieldEvent {
+	private final int columns;
+
+	/* The revealed tiles as sorted, non-overlapping ranges of row-major tile indices (row * columns + column)
+	   Range i covers [ranges[2 * i], ranges[2 * i + 1]), so a flood fill of a million tiles is a few thousand ranges */
+	private final long[] ranges;
+	private final int rangeCount;
+	private final long cellCount;
+
+	public CellRevealed(int columns, long[] ranges, int rangeCount, long cellCount) {
+		this.columns = columns;
+		this.ranges = ranges;
+		this.rangeCount = rangeCount;
+		this.cellCount = cellCount;
+	}
+
+	// The total number of tiles revealed
+	public long getCellCount() {
+		return cellCount;
+	}
+
+	public int getRangeCount() {
+		return rangeCount;
+	}
+
+	// The row-major index of the first tile in range i
+	public long getRangeStart(int i) {
+		return ranges[2 * i];
+	}
+
+	// The row-major index one past the last tile in range i
+	public long getRangeEnd(int i) {
+		return ranges[2 * i + 1];
+	}
+
+	public int getColumnCount() {
+		return columns;
+	}
+
+	public boolean contains(int row, int column) {
+		long index = (long) row * columns + column;
+		// Binary search for the last range starting at or before index
+		int low = 0;
+		int high = rangeCount - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (ranges[2 * mid] <= index) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return high >= 0 && index < ranges[2 * high + 1];
+	}
+
+	@Override
+	public String toString() {
+		return "CellRevealed " + cellCount + " tiles in " + rangeCount + " ranges";
+	}
+}
@@ -0,0 +1,25 @@
+package minesweeper.Events;
+
+public class GameLost extends MinefieldEvent {
+	// The mined tile that was stepped on
+	private final int row;
+	private final int column;
+
+	public GameLost(int row, int column) {
+		this.row = row;
+		this.column = column;
+	}
+
+	public int getRow() {
+		return row;
+	}
+
+	public int getColumn() {
+		return column;
+	}
+
+	@Override
+	public String toString() {
+		return "GameLost (" + row + "," + column + ")";
+	}
+}
@@ -0,0 +1,8 @@
+package minesweeper.Events;
+
+public class GameWon extends MinefieldEvent {
+	@Override
+	public String toString() {
+		return "GameWon";
+	}
+}
@@ -0,0 +1,6 @@
+package minesweeper.Events;
+
+public abstract class MinefieldEvent {
+	/* Events are delivered to a MinefieldListener in batches, one batch per Minefield operation
+	   (step, markTile, ...), so a listener always sees the complete result of an operation at once */
+}
@@ -0,0 +1,8 @@
+package minesweeper.Events;
+
+import java.util.List;
+
+public interface MinefieldListener {
+	// Called once at the end of every Minefield operation that changed something, with everything it changed, in order
+	void onEvents(List<MinefieldEvent> events);
+}
@@ -0,0 +1,23 @@
+package minesweeper.Flight;
+
+interface FlightEvents {
+	/* The engine's Java Flight Recorder events, as seen from src/, which never refers to jdk.jfr itself
+	   JfrEvents in src-jfr/ is the only implementation. Events are handed around as plain Objects. */
+
+	// Whether a recording is running, checked without starting up JFR
+	boolean isRecording();
+
+	Object beginGeneration();
+
+	void commitGeneration(Object token, String strategy, int rows, int columns, int mines);
+
+	Object beginReveal();
+
+	void commitReveal(Object token, String operation, int seedRow, int seedColumn, long tilesRevealed, long pushes, boolean survived);
+
+	void commitWinCheck(boolean won, long mismatches);
+
+	Object beginRender();
+
+	void commitRender(Object token, int rows, int columns, boolean forceReveal, long bytes);
+}
@@ -0,0 +1,60 @@
+package minesweeper.Flight;
+
+public final class FlightRecording {
+	/* Java Flight Recorder events for the engine, so its operations show up by name in JDK Mission Control
+	   The project targets Java 8, where jdk.jfr only exists from 8u262 onwards, so nothing in src/ refers to it and
+	   src/ compiles with --release 8. The events live in src-jfr/, which is only built by a JDK that has jdk.jfr,
+	   and are loaded here by name. If they weren't built, or this JVM has no JFR, ENABLED is false.
+	   Callers check ENABLED before calling anything else here, and hold events as plain Objects.
+	   Loading the first event class starts up the whole of JFR, which takes over 100ms, so by default events are only
+	   created if a recording was started with the JVM (-XX:StartFlightRecording). Run with -Dminesweeper.jfr=true
+	   to create them anyway, e.g. to start a recording later with jcmd, or -Dminesweeper.jfr=false to never create them. */
+	private static final FlightEvents EVENTS = load(System.getProperty("minesweeper.jfr"));
+
+	public static final boolean ENABLED = EVENTS != null;
+
+	private FlightRecording() {
+	}
+
+	private static FlightEvents load(String setting) {
+		if ("false".equals(setting)) {
+			return null;
+		}
+		try {
+			Class<?> events = Class.forName("minesweeper.Flight.JfrEvents", true, FlightRecording.class.getClassLoader());
+			FlightEvents loaded = (FlightEvents) events.getDeclaredConstructor().newInstance();
+			return "true".equals(setting) || loaded.isRecording() ? loaded : null;
+		} catch (ReflectiveOperationException | LinkageError e) {
+			// Built without src-jfr/, or running on a JVM without jdk.jfr
+			return null;
+		}
+	}
+
+	public static Object beginGeneration() {
+		return EVENTS.beginGeneration();
+	}
+
+	public static void commitGeneration(Object token, String strategy, int rows, int columns, int mines) {
+		EVENTS.commitGeneration(token, strategy, rows, columns, mines);
+	}
+
+	public static Object beginReveal() {
+		return EVENTS.beginReveal();
+	}
+
+	public static void commitReveal(Object token, String operation, int seedRow, int seedColumn, long tilesRevealed, long pushes, boolean survived) {
+		EVENTS.commitReveal(token, operation, seedRow, seedColumn, tilesRevealed, pushes, survived);
+	}
+
+	public static void commitWinCheck(boolean won, long mismatches) {
+		EVENTS.commitWinCheck(won, mismatches);
+	}
+
+	public static Object beginRender() {
+		return EVENTS.beginRender();
+	}
+
+	public static void commitRender(Object token, int rows, int columns, boolean forceReveal, long bytes) {
+		EVENTS.commitRender(token, rows, columns, forceReveal, bytes);
+	}
+}
@@ -0,0 +1,39 @@
+package minesweeper;
+
+import java.util.Arrays;
+
+class LongStack {
+	/* A growable stack of primitive longs
+	   java.util.Stack<Long> boxes every value it holds, which costs an allocation per push
+	   and limits a flood fill on a huge minefield to what fits in the heap as Long objects */
+	private long[] values;
+	private int size = 0;
+
+	public LongStack(int initialCapacity) {
+		values = new long[Math.max(initialCapacity, 1)];
+	}
+
+	public void push(long value) {
+		if (size == values.length) {
+			// Double the capacity whenever the stack fills up
+			values = Arrays.copyOf(values, values.length * 2);
+		}
+		values[size++] = value;
+	}
+
+	public long pop() {
+		return values[--size];
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+}
@@ -0,0 +1,29 @@
+package minesweeper.Metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class Counter {
+	private final String name;
+	// LongAdder spreads contended increments over several cells, so counting from many threads stays cheap
+	private final LongAdder count = new LongAdder();
+
+	Counter(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void increment() {
+		count.increment();
+	}
+
+	public void add(long amount) {
+		count.add(amount);
+	}
+
+	public long get() {
+		return count.sum();
+	}
+}
@@ -0,0 +1,19 @@
+package minesweeper.Metrics;
+
+import java.util.Map;
+
+public interface MetricsMXBean {
+	// Registered under minesweeper:type=Metrics, see MetricsRegistry
+
+	// The current value of every counter, by name
+	Map<String, Long> getCounters();
+
+	// The count, mean, p50, p99 and max of every histogram, by "<name>.<statistic>"
+	Map<String, Double> getHistograms();
+
+	// The same text that the periodic dump prints
+	String getReport();
+
+	// Clear every histogram, e.g. between load tests
+	void resetHistograms();
+}
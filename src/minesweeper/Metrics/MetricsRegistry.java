@@ -0,0 +1,140 @@
+package minesweeper.Metrics;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+public final class MetricsRegistry implements MetricsMXBean {
+	/* Metrics are off unless the JVM is started with -Dminesweeper.metrics=true
+	   Callers guard their measurements with "if (MetricsRegistry.ENABLED)", and as this is a static final constant
+	   the JIT removes the guarded code entirely when metrics are off, so they cost nothing */
+	public static final boolean ENABLED = Boolean.getBoolean("minesweeper.metrics");
+
+	private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+	private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+	// Counter values at the previous dump, so the dump can show rates
+	private final Map<String, Long> lastDumpCounts = new TreeMap<>();
+	private long lastDumpNanos = System.nanoTime();
+
+	private ScheduledExecutorService dumpExecutor;
+
+	static {
+		if (ENABLED) {
+			INSTANCE.registerMBean();
+
+			// -Dminesweeper.metrics.dumpInterval=<seconds> prints a report to stderr every so often
+			long dumpInterval = Long.getLong("minesweeper.metrics.dumpInterval", 0);
+			if (dumpInterval > 0) {
+				INSTANCE.startDump(dumpInterval, TimeUnit.SECONDS, System.err);
+			}
+		}
+	}
+
+	private MetricsRegistry() {
+	}
+
+	public static MetricsRegistry get() {
+		return INSTANCE;
+	}
+
+	public static Counter counter(String name) {
+		return INSTANCE.counters.computeIfAbsent(name, Counter::new);
+	}
+
+	public static Histogram histogram(String name, String unit) {
+		return INSTANCE.histograms.computeIfAbsent(name, key -> new Histogram(key, unit));
+	}
+
+	private void registerMBean() {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("minesweeper:type=Metrics"));
+		} catch (JMException e) {
+			// Metrics are a diagnostic aid, so failing to publish them mustn't stop the game
+			System.err.println("Couldn't register metrics with JMX: " + e);
+		}
+	}
+
+	public synchronized void startDump(long interval, TimeUnit unit, PrintStream out) {
+		if (dumpExecutor != null) {
+			throw new IllegalStateException("The metrics dump has already been started");
+		}
+		dumpExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			// A daemon thread, so the dump never keeps the JVM alive on its own
+			Thread thread = new Thread(runnable, "minesweeper-metrics-dump");
+			thread.setDaemon(true);
+			return thread;
+		});
+		dumpExecutor.scheduleAtFixedRate(() -> out.println(getReport()), interval, interval, unit);
+	}
+
+	public synchronized void stopDump() {
+		if (dumpExecutor != null) {
+			dumpExecutor.shutdownNow();
+			dumpExecutor = null;
+		}
+	}
+
+	@Override
+	public Map<String, Long> getCounters() {
+		Map<String, Long> values = new TreeMap<>();
+		for (Counter counter : counters.values()) {
+			values.put(counter.getName(), counter.get());
+		}
+		return values;
+	}
+
+	@Override
+	public Map<String, Double> getHistograms() {
+		Map<String, Double> values = new TreeMap<>();
+		for (Histogram histogram : histograms.values()) {
+			String name = histogram.getName();
+			values.put(name + ".count", (double) histogram.getCount());
+			values.put(name + ".mean", histogram.getMean());
+			values.put(name + ".p50", (double) histogram.getPercentile(50));
+			values.put(name + ".p99", (double) histogram.getPercentile(99));
+			values.put(name + ".max", (double) histogram.getMax());
+		}
+		return values;
+	}
+
+	@Override
+	public synchronized String getReport() {
+		StringBuilder report = new StringBuilder("Minesweeper metrics\n");
+
+		// Counters, with their rate per second since the previous report
+		long now = System.nanoTime();
+		double seconds = Math.max((now - lastDumpNanos) / 1e9, 1e-9);
+		for (Map.Entry<String, Long> counter : getCounters().entrySet()) {
+			long previous = lastDumpCounts.getOrDefault(counter.getKey(), 0L);
+			report.append(String.format("  %-32s %12d  (%.1f/s)%n", counter.getKey(), counter.getValue(), (counter.getValue() - previous) / seconds));
+			lastDumpCounts.put(counter.getKey(), counter.getValue());
+		}
+		lastDumpNanos = now;
+
+		// Histograms, sorted by name
+		for (Histogram histogram : new TreeMap<>(histograms).values()) {
+			report.append(String.format("  %-32s count=%d mean=%.1f p50=%d p99=%d max=%d %s%n",
+				histogram.getName(), histogram.getCount(), histogram.getMean(),
+				histogram.getPercentile(50), histogram.getPercentile(99), histogram.getMax(), histogram.getUnit()));
+		}
+		return report.toString();
+	}
+
+	@Override
+	public void resetHistograms() {
+		for (Histogram histogram : histograms.values()) {
+			histogram.reset();
+		}
+	}
+}
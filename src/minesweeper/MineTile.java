@@ -1,73 +1,111 @@
-package minesweeper;
-
-public class MineTile {
-	private boolean mined = false;
-	private boolean revealed = false;
-	private boolean marked = false;
-	private int mineNeighbours = 0;
-
-	public boolean isMined() {
-		return mined;
-	}
-
-	public void setMined(boolean mined) {
-		this.mined = mined;
-	}
-	
-	public boolean isRevealed() {
-		return revealed;
-	}
-	
-	public void reveal() {
-		revealed = true;
-	}
-	
-	public boolean isMarked() {
-		return marked;
-	}
-	
-	public void toggleMarked() {
-		marked = !marked;
-	}
-	
-	public void addMineNeighbour() {
-		if (mineNeighbours == 8) {
-			throw new ArithmeticException("Can't have more than 8 mine neighbours");
-		} else {
-			mineNeighbours++;
-		}
-	}
-	
-	public void removeMineNeighbour() {
-		if (mineNeighbours == 0) {
-			throw new ArithmeticException("Can't have less than 0 mine neighbours");
-		} else {
-			mineNeighbours--;
-		}
-	}
-	
-	public int getMineNeighbours() {
-		return mineNeighbours;
-	}
-	
-	public String toString(boolean forceReveal) {
-		if (marked) {
-			return "!";
-		} else if (forceReveal || revealed) {
-			if (mined) {
-				return "*";
-			} else if (mineNeighbours > 0) {
-				return String.valueOf(mineNeighbours);
-			} else {
-				return " ";
-			}
-		} else {
-			return "#";
-		}
-	}
-	
-	@Override
-	public String toString() {
-		return this.toString(false);
-	}
-}
+package minesweeper;
+
+public class MineTile {
+	// The most neighbours a tile can have, in a cube (see Topology)
+	static final int MAX_NEIGHBOURS = 26;
+
+	private boolean mined = false;
+	private boolean revealed = false;
+	private boolean marked = false;
+	private int mineNeighbours = 0;
+
+	public boolean isMined() {
+		return mined;
+	}
+
+	public void setMined(boolean mined) {
+		this.mined = mined;
+	}
+	
+	public boolean isRevealed() {
+		return revealed;
+	}
+	
+	public void reveal() {
+		revealed = true;
+	}
+	
+	public boolean isMarked() {
+		return marked;
+	}
+	
+	public void toggleMarked() {
+		marked = !marked;
+	}
+	
+	public void addMineNeighbour() {
+		if (mineNeighbours == MAX_NEIGHBOURS) {
+			throw new ArithmeticException("Can't have more than " + MAX_NEIGHBOURS + " mine neighbours");
+		} else {
+			mineNeighbours++;
+		}
+	}
+	
+	public void removeMineNeighbour() {
+		if (mineNeighbours == 0) {
+			throw new ArithmeticException("Can't have less than 0 mine neighbours");
+		} else {
+			mineNeighbours--;
+		}
+	}
+	
+	public int getMineNeighbours() {
+		return mineNeighbours;
+	}
+	
+	public void reset() {
+		// Return the tile to the state it was constructed in, so it can be reused for a new game
+		mined = false;
+		revealed = false;
+		marked = false;
+		mineNeighbours = 0;
+	}
+	
+	public void copyFrom(MineTile tile) {
+		mined = tile.mined;
+		revealed = tile.revealed;
+		marked = tile.marked;
+		mineNeighbours = tile.mineNeighbours;
+	}
+	
+	public String toString(boolean forceReveal) {
+		if (marked) {
+			return "!";
+		} else if (forceReveal || revealed) {
+			if (mined) {
+				return "*";
+			} else if (mineNeighbours > 0) {
+				return String.valueOf(toChar(forceReveal));
+			} else {
+				return " ";
+			}
+		} else {
+			return "#";
+		}
+	}
+	
+	public char toChar(boolean forceReveal) {
+		// The same as toString(forceReveal), without creating a String
+		if (marked) {
+			return '!';
+		} else if (forceReveal || revealed) {
+			if (mined) {
+				return '*';
+			} else if (mineNeighbours > 9) {
+				// Only a cube's tiles can have this many, which are shown as letters from a for 10
+				return (char) ('a' + mineNeighbours - 10);
+			} else if (mineNeighbours > 0) {
+				return (char) ('0' + mineNeighbours);
+			} else {
+				return ' ';
+			}
+		} else {
+			return '#';
+		}
+	}
+	
+	@Override
+	public String toString() {
+		return this.toString(false);
+	}
+}
@@ -1,401 +1,942 @@
-package minesweeper;
-
-import java.security.SecureRandom;
-import java.util.Stack;
-
-class Minefield {
-	private final int rows;
-	private final int columns;
-	private final int tileCount;
-	private final int maxMines;
-	private int mineCount = 0;
-
-	// Our 2D [row][column] array of MineTiles
-	final MineTile[][] tiles;
-	
-	/* Track whether this Minefield has had a first move on it or not,
-	   this is so that we can prevent the game from ending on the first move if there's a mine. */
-	private boolean firstMove = true;
-	
-	/* Use java.security.SecureRandom instead of java.util.Random because
-	   values generated by java.util.Random can be predetermined and are
-	   not cryptographically secure. */
-	private SecureRandom random = new SecureRandom();
-
-	public int getRowCount() {
-		return rows;
-	}
-
-	public int getColumnCount() {
-		return columns;
-	}
-
-	public int getTileCount() {
-		return tileCount;
-	}
-
-	public int getMaxMines() {
-		return maxMines;
-	}
-
-	public int getMineCount() {
-		return mineCount;
-	}
-
-	public Minefield(int rows, int columns, int maxMines) {
-		// Argument sanity checks for generating a legal minefield
-		if (rows <= 0)
-			throw new IllegalArgumentException("Must have 1 or more rows");
-		if (columns <= 0)
-			throw new IllegalArgumentException("Must have 1 or more columns");
-		if (rows * columns <= 1)
-			throw new IllegalArgumentException("Must be more than 1 tile");
-		if (maxMines < 0)
-			throw new IllegalArgumentException("Mines cannot be negative");
-		if (maxMines > (rows * columns) - 1)
-			throw new IllegalArgumentException("More mines than tiles available (excluding (0,0))");
-		
-		// Assign our attributes from the constructor arguments
-		this.rows = rows;
-		this.columns = columns;
-		this.tileCount = rows * columns;
-		this.maxMines = maxMines;
-		
-		// Initialize tiles with specified rows and columns
-		tiles = new MineTile[rows][columns];
-		for (int row = 0; row < rows; row++) {
-			for (int col = 0; col < columns; col++) {
-				tiles[row][col] = new MineTile();
-			}
-		}
-	}
-	
-	public boolean areAllMinesRevealed() {
-		// Check whether all mines have been revealed/marked, aka winning the game
-		// Iterate over every row and column...
-		for (int row = 0; row < rows; row++) {
-			for (int col = 0; col < columns; col++) {
-				// isMined XOR isMarked = (isMined AND isMarked) OR (NOT isMined AND NOT isMarked)
-				// "mined tiles are correctly flagged, and no unmined tiles have been incorrectly flagged"
-				if (tiles[row][col].isMined() ^ tiles[row][col].isMarked()) {
-					return false;
-				}
-			}
-		}
-		return true;
-	}
-	
-	public void markTile(int row, int column) {
-		// Argument sanity checks for coordinate boundaries
-		if (row < 0 || row >= rows)
-			throw new IllegalArgumentException("Row coordinate out of range");
-		if (column < 0 || column >= columns)
-			throw new IllegalArgumentException("Column coordinate out of range");
-		
-		// Toggle marked
-		tiles[row][column].toggleMarked();
-	}
-	
-	private void stepCompute(Stack stepCoordinates, int row, int column) {
-		// Reveal the tile
-		tiles[row][column].reveal();
-		
-		if (tiles[row][column].getMineNeighbours() == 0) {
-			// If a tile has 0 mined neighbours, then it should be revealed, and all its neighbours should be searched
-			// Precalculate the range of rows that need revealing:
-			int rowsRangeMin = Math.max(row - 1, 0); // The row above; otherwise, the row of the specified tile
-			int rowsRangeMax = Math.min(row + 1, rows - 1); // The row below; otherwise, the row of the specified tile
-			// This will iterate through the row above (if present), the specified tile's row, and the row below (if present)
-			for (int neighbourRow = rowsRangeMin; neighbourRow <= rowsRangeMax; neighbourRow++) {
-				// Precalculate the range of columns that need revealing:
-				int columnsRangeMin = Math.max(column - 1, 0); // The column to the left; otherwise, the column of the specified tile
-				int columnsRangeMax = Math.min(column + 1, columns - 1); // The column to the right; otherwise, the column of the specified tile
-				// This will iterate through the column to the left (if present), the specified tile's column, and the column to the right (if present)
-				for (int neighbourCol = columnsRangeMin; neighbourCol <= columnsRangeMax; neighbourCol++) {
-					// Don't step into an already revealed tile (stack overflow!)
-					if (!tiles[neighbourRow][neighbourCol].isRevealed()) {
-						// Recursively reveal the neighbouring tile (add its 1D coordinate to the stepCoordinates stack for step to deal with)
-						stepCoordinates.push(neighbourRow * rows + neighbourCol);
-					}
-				}
-			}
-		}
-	}
-	
-	public boolean step(int row, int column) {
-		// Argument sanity checks for coordinate boundaries
-		if (row < 0 || row >= rows)
-			throw new IllegalArgumentException("Row coordinate out of range");
-		if (column < 0 || column >= columns)
-			throw new IllegalArgumentException("Column coordinate out of range");
-		
-		boolean lostGame = tiles[row][column].isMined();
-		if (lostGame) {
-			if (firstMove) {
-				// If this is the first move, move the mine somewhere else...
-				tiles[row][column].setMined(false);
-				
-				// Decrement mineCount
-				mineCount--;
-				
-				// Precalculate the range of rows that need mine neighbour decrementations:
-				int rowsRangeMin = Math.max(row - 1, 0); // The row above; otherwise, the row of the specified tile
-				int rowsRangeMax = Math.min(row + 1, rows - 1); // The row below; otherwise, the row of the specified tile
-				// This will iterate through the row above (if present), the specified tile's row, and the row below (if present)
-				for (int neighbourRow = rowsRangeMin; neighbourRow <= rowsRangeMax; neighbourRow++) {
-					// Precalculate the range of columns that need mine neighbour decrementations:
-					int columnsRangeMin = Math.max(column - 1, 0); // The column to the left; otherwise, the column of the specified tile
-					int columnsRangeMax = Math.min(column + 1, columns - 1); // The column to the right; otherwise, the column of the specified tile
-					// This will iterate through the column to the left (if present), the specified tile's column, and the column to the right (if present)
-					for (int neighbourCol = columnsRangeMin; neighbourCol <= columnsRangeMax; neighbourCol++) {
-						if (neighbourRow != row || neighbourCol != column) {
-							// Decrement the number of neighbouring tiles for this neighbouring tile
-							tiles[neighbourRow][neighbourCol].removeMineNeighbour();
-						}
-					}
-				}
-				
-				if (maxMines < tileCount - 1) { // Prevent edge case if literally every tile except (0,0) has a mine on it, see testFirstMoveLoseEdgeCase
-					// Reveal the tile so populate() won't add a mine to it
-					tiles[row][column].reveal();
-					
-					// The Bruteforce method will find somewhere to place the mine for us when the game has been lost due after the first move
-					populateBruteforce();
-				}
-			} else {
-				// Unlucky mate, you lose - that tile had a mine on it!
-				return false;
-			}
-		}
-		
-		// Subsequent moves aren't the first move anymore
-		firstMove = false;
-		
-		// If mine neighbours > 0, we just reveal the tile, so no need to do recursion or anything...
-		if (tiles[row][column].getMineNeighbours() > 0) {
-			// Reveal the tile
-			tiles[row][column].reveal();
-		} else {
-			/* When performing very deep recursion (such as when the grid is huge), Java will throw a java.lang.StackOverflowError
-			   To solve this, we'll use our own stack...
-			   https://en.wikipedia.org/wiki/Stack_overflow#Very_deep_recursion */
-			Stack<Integer> stepCoordinates = new Stack<>();
-
-			// Push our first 1D coordinate onto the stack
-			stepCoordinates.push(row * rows + column);
-
-			while (!stepCoordinates.isEmpty()) {
-				/* Pop the coordinate off the stack - this is kind of like our "recursion" base case, as the while loop
-				   will terminate when the stack becomes empty */
-				int coord = stepCoordinates.pop();
-
-				// Calculate row number from 1D tile coordinate
-				int stepRow = (int) Math.floor(coord / rows);
-
-				// Calculate column number from 1D tile coordinate
-				int stepColumn = coord % rows;
-
-				// Call stepCompute, our "real" step function, abstracted for this stack
-				stepCompute(stepCoordinates, stepRow, stepColumn);
-			}
-		}
-		
-		return true;
-	}
-	
-	public boolean mineTile(int row, int column) {
-		// Argument sanity checks for coordinate boundaries and excepting (0,0)
-		if (row < 0 || row >= rows)
-			throw new IllegalArgumentException("Row coordinate out of range");
-		if (column < 0 || column >= columns)
-			throw new IllegalArgumentException("Column coordinate out of range");
-		if (column == 0 && row == 0)
-			throw new IllegalArgumentException("You cannot place a mine at (0,0)");
-		
-		/* If there's already a mine here, or we've already reached the maximum
-		   number of tiles on the minefield, or the tile has already been revealed, return false */
-		if (tiles[row][column].isMined() || tiles[row][column].isRevealed() || mineCount >= maxMines) {
-			return false;
-		} else {
-			// Otherwise, place our mine at the provided coordinates
-			tiles[row][column].setMined(true);
-			// Increment mineCount
-			mineCount++;
-			
-			// Precalculate the range of rows that need mine neighbour incrementations:
-			int rowsRangeMin = Math.max(row - 1, 0); // The row above; otherwise, the row of the specified tile
-			int rowsRangeMax = Math.min(row + 1, rows - 1); // The row below; otherwise, the row of the specified tile
-			// This will iterate through the row above (if present), the specified tile's row, and the row below (if present)
-			for (int neighbourRow = rowsRangeMin; neighbourRow <= rowsRangeMax; neighbourRow++) {
-				// Precalculate the range of columns that need mine neighbour incrementations:
-				int columnsRangeMin = Math.max(column - 1, 0); // The column to the left; otherwise, the column of the specified tile
-				int columnsRangeMax = Math.min(column + 1, columns - 1); // The column to the right; otherwise, the column of the specified tile
-				// This will iterate through the column to the left (if present), the specified tile's column, and the column to the right (if present)
-				for (int neighbourCol = columnsRangeMin; neighbourCol <= columnsRangeMax; neighbourCol++) {
-					if (neighbourRow != row || neighbourCol != column) {
-						// Increment the number of neighbouring tiles for this neighbouring tile
-						tiles[neighbourRow][neighbourCol].addMineNeighbour();
-					}
-				}
-			}
-			
-			// Mine placement successful, return true
-			return true;
-		}
-	}
-	
-	private void populateBruteforce() {
-		// Attempt to place tiles at random tiles until we've placed the amount required (maxMines)
-		while (mineCount < maxMines) {
-			/* Generates a random integer from 1..(tileCount - 1) = (1,0)..(tileCount-1,tileCount-1)
-			   This represents a 1-dimensional tile coordinate that we can convert to 2D */
-			int coord = random.nextInt(tileCount - 1) + 1;
-
-			// Calculate row number from 1D tile coordinate
-			int row = (int) Math.floor(coord / rows);
-
-			// Calculate column number from 1D tile coordinate
-			int column = coord % rows;
-
-			// Attempt to place a mine at this tile
-			mineTile(row, column);
-		}
-	}
-	
-	private void populateFisherYates() {
-		// Initialize a boolean array which represents the minefield in 1D, excluding (0,0)
-		boolean[] randomMines = new boolean[tileCount - 1];
-		// Populate the array with specified number of tiles ("true")
-		for (int i = 0; i < maxMines; i++) {
-			randomMines[i] = true;
-		}
-		
-		/* Perform the Sattolo variant of the Fisher-Yates shuffle
-		   https://en.wikipedia.org/wiki/Fisher%E2%80%93Yates_shuffle#Sattolo%27s_algorithm
-		   https://danluu.com/sattolo/ */
-		int n = randomMines.length;
-		for (int i = 0; i < n - 1; i++) {
-			int max = n - 1;
-			int min = i + 1;
-			
-			// Generate random integer from [min..max]
-			int j = random.nextInt((max - min) + 1) + min;
-			
-			// Swap array[i] and array[j] values
-			boolean swap = randomMines[i];
-			randomMines[i] = randomMines[j];
-			randomMines[j] = swap;
-		}
-		
-		// Populate 2D tiles array using randomized 1D random tiles array
-		for (int i = 0; i < randomMines.length; i++) {
-			if (randomMines[i]) {
-				int coord = i + 1;
-				
-				// Calculate row number from 1D tile coordinate
-				int row = (int) Math.floor(coord / rows);
-
-				// Calculate column number from 1D tile coordinate
-				int column = coord % rows;
-
-				// Place a mine at this tile
-				mineTile(row, column);
-			}
-		}
-	}
-	
-	public void populate() {
-		/* The Fisher-Yates array shuffling algorithm is significantly faster
-		   than the bruteforcing method when the percentage of tiles is >= 60%.
-		   https://plot.ly/~WilliamVenner/2/ */
-		if ((float)maxMines / (float)tileCount >= 0.6) {
-			populateFisherYates();
-		} else {
-			populateBruteforce();
-		}
-	}
-	
-	public String toString(boolean forceReveal) {
-		// Use a StringBuilder here to efficiently allocate memory for repetitive appending
-		StringBuilder minefieldStr = new StringBuilder();
-		
-		// This monstrosity calculates and adds coordinates to the toString() grid
-		int rowSpaces   = String.valueOf(rows - 1).length() - 1;
-		int columnLines = String.valueOf(columns - 1).length();
-		
-		if (columnLines > 1) {
-			// If our columns >9, we need to print multiple lines and align the numbers vertically...
-			
-			String[][] columnDigits = new String[columns][columnLines];
-			for (int col = 0; col < columns; col++) {
-				String colStr = String.valueOf(col);
-				// If the column's string representation is the same length as the number of lines
-				if (colStr.length() == columnLines) {
-					// We can just make its digits the split version
-					columnDigits[col] = colStr.split("");
-				} else {
-					// Otherwise, we need to "inject" spaces ourselves, and THEN manually "inject" the digits
-					String[] colDigits = colStr.split("");
-					int spacesNeeded = columnLines - colStr.length();
-					for (int space = 0; space < columnLines; space++) {
-						if (space >= spacesNeeded) {
-							columnDigits[col][space] = colDigits[space - spacesNeeded];
-						} else {
-							columnDigits[col][space] = " ";
-						}
-					}
-				}
-			}
-			
-			// This actually adds the column lines to the minefieldStr
-			for (int line = 0; line < columnLines; line++) {
-				StringBuilder lineStr = new StringBuilder();
-				for (int space = 0; space <= rowSpaces + 1; space++) {
-					minefieldStr.append(" ");
-				}
-				for (int col = 0; col < columns; col++) {
-					if (columnDigits[col].length - 1 >= line) {
-						lineStr.append(columnDigits[col][line]);
-					} else {
-						lineStr.append(" ");
-					}
-				}
-				minefieldStr.append(lineStr.toString() + "\n");
-			}
-		} else {
-			// If we only have 1-9 columns, we can just print a single line of them
-			for (int space = 0; space <= rowSpaces + 1; space++) {
-				minefieldStr.append(" ");
-			}
-			for (int col = 0; col < columns; col++) {
-				minefieldStr.append(col);
-			}
-			minefieldStr.append("\n");
-		}
-		
-		// Iterate over every row
-		for (int row = 0; row < rows; row++) {
-			int rowNumLength = String.valueOf(row).length();
-			for (int space = rowNumLength; space <= rowSpaces; space++) {
-				minefieldStr.append(" ");
-			}
-			minefieldStr.append(row + " ");
-			// Iterate over every column in this row
-			for (int column = 0; column < columns; column++) {
-				minefieldStr.append(tiles[row][column].toString(forceReveal));
-			}
-			if (row != rows - 1) {
-				// Append a newline to show a new row
-				minefieldStr.append('\n');
-			}
-		}
-		
-		// Finally, convert the StringBuilder to a string and return it
-		return minefieldStr.toString();
-	}
-	
-	@Override
-	public String toString() {
-		return this.toString(false);
-	}
-}
+package minesweeper;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import minesweeper.Events.CellMarked;
+import minesweeper.Events.CellRevealed;
+import minesweeper.Events.GameLost;
+import minesweeper.Events.GameWon;
+import minesweeper.Events.MinefieldEvent;
+import minesweeper.Events.MinefieldListener;
+import minesweeper.Flight.FlightRecording;
+import minesweeper.Metrics.MetricsRegistry;
+
+class Minefield {
+	// The shape of the minefield, which decides which tiles neighbour each other and how it's drawn
+	private final Topology topology;
+	private final int rows;
+	private final int columns;
+	private final long tileCount;
+	private int maxMines;
+	private int mineCount = 0;
+	
+	/* The number of tiles which are mined XOR marked - the game is won when this reaches 0
+	   Keeping count as tiles change means checking for a win doesn't have to scan the whole minefield */
+	private long mismatchCount = 0;
+	
+	// The number of tiles revealed so far this game, so callers can tell whether a move changed anything
+	private long revealedCount = 0;
+
+	/* Our MineTiles, in the topology's grid: each row of tiles has a border tile at either end, and there are border rows
+	   around them, so every neighbour of a tile is a fixed offset away in the grid, and never off the edge of it
+	   The border's tiles are the SENTINEL, except on a torus, where they're the tiles from the other side.
+	   Every tile is only stored once: tileRows[row] is the grid row holding that row's tiles, at 1..columns. */
+	private final MineTile[][] grid;
+	private final MineTile[][] tileRows;
+	
+	// The topology's offsets from a tile to its neighbours, see Topology.neighbourOffsets
+	private final int[][] neighbourOffsets;
+	private final boolean gridNeighbours;
+	
+	// The flood fill pushes tiles by their position in the grid, gridRow * gridColumns + gridColumn
+	private final int gridColumns;
+	private final int lastGridRow;
+	private final boolean wraps;
+	
+	// Revealed and never mined, so the flood fill and chord never step into the border, and mineTile leaves it alone
+	private static final MineTile SENTINEL = newSentinel();
+	
+	// Filled in by the topology with the neighbours of the first step, to keep them clear
+	private final int[] neighbourRows;
+	private final int[] neighbourColumns;
+	
+	/* Set by populateOnFirstStep, so the mines are only placed once the first step says where not to put them
+	   The game can't be lost on the first move that way, and with safeNeighbourhood it always starts with an opening */
+	private boolean placementPending = false;
+	private boolean safeNeighbourhood = false;
+	
+	// While placing mines, these tiles are left empty: the first safeCount 1D coordinates, in ascending order
+	private final long[] safeTiles;
+	private int safeCount = 0;
+	
+	// The ID the mines were generated from, or null if they were placed some other way (see populate(BoardId))
+	private BoardId boardId;
+	
+	/* Set by populateOnFirstStep(BoardId, BoardCache): the mines are placed from boardId's seed, around the first step,
+	   and copied from this cache when it has them already. It's null if the mines aren't placed from an ID. */
+	private BoardCache placementCache;
+	
+	/* Use java.security.SecureRandom instead of java.util.Random because
+	   values generated by java.util.Random can be predetermined and are
+	   not cryptographically secure. Boards that must be regenerated later are populated from a BoardId instead,
+	   whose seed is itself picked with this SecureRandom.
+	   Seeding a SecureRandom can take tens of milliseconds (or block for entropy), so one is shared by every Minefield,
+	   and it's only created the first time a mine is placed at random, by loading the RandomHolder class. */
+	private static final class RandomHolder {
+		static final SecureRandom RANDOM = new SecureRandom();
+	}
+	
+	static SecureRandom random() {
+		return RandomHolder.RANDOM;
+	}
+	
+	private final ArrayList<MinefieldListener> listeners = new ArrayList<>();
+	
+	/* The events of the operation in progress, or null if nobody is listening
+	   Tiles revealed during the operation are collected as 1D coordinates in revealedBuffer,
+	   and turned into a single CellRevealed event when the operation finishes */
+	private ArrayList<MinefieldEvent> pendingEvents;
+	
+	// The flood fill's work stack, kept between moves so that it only has to grow once
+	private final LongStack stepCoordinates = new LongStack(64);
+	
+	/* Per-move measurements for EngineMetrics and the flight recorder's RevealEvent,
+	   only kept up to date when one of them is enabled */
+	private static final boolean MEASURE_MOVES = MetricsRegistry.ENABLED || FlightRecording.ENABLED;
+	private long revealedThisMove = 0;
+	private long pushesThisMove = 0;
+	private int peakStepDepth = 0;
+	private long[] revealedBuffer = new long[0];
+	private int revealedBufferSize = 0;
+
+	public Topology getTopology() {
+		return topology;
+	}
+
+	public int getRowCount() {
+		return rows;
+	}
+
+	public int getColumnCount() {
+		return columns;
+	}
+
+	public long getTileCount() {
+		return tileCount;
+	}
+
+	public int getMaxMines() {
+		return maxMines;
+	}
+
+	public int getMineCount() {
+		return mineCount;
+	}
+
+	public long getRevealedCount() {
+		return revealedCount;
+	}
+	
+	/* Every 1D tile coordinate in the minefield goes through these three methods
+	   Tiles are numbered row by row (row-major), so the stride between rows is the number of columns,
+	   and coordinates are longs because rows * columns can exceed Integer.MAX_VALUE */
+	long toCoordinate(int row, int column) {
+		return (long) row * columns + column;
+	}
+	
+	int rowOf(long coord) {
+		return (int) (coord / columns);
+	}
+	
+	int columnOf(long coord) {
+		return (int) (coord % columns);
+	}
+	
+	MineTile getTile(int row, int column) {
+		return tileRows[row][column + 1];
+	}
+	
+	MineTile[] getTileRow(int row) {
+		// The grid row holding a row of tiles: they're at 1..columns, between the border tiles at 0 and columns + 1
+		return tileRows[row];
+	}
+	
+	private static MineTile newSentinel() {
+		MineTile sentinel = new MineTile();
+		sentinel.reveal();
+		return sentinel;
+	}
+
+	public Minefield(int rows, int columns, int maxMines) {
+		// The classic grid
+		this(Topology.rectangle(rows, columns), maxMines);
+	}
+	
+	public Minefield(Topology topology, int maxMines) {
+		// Argument sanity checks for generating a legal minefield, the topology has checked its own size
+		if (maxMines < 0)
+			throw new IllegalArgumentException("Mines cannot be negative");
+		if (maxMines > topology.getTileCount() - 1)
+			throw new IllegalArgumentException("More mines than tiles available (excluding (0,0))");
+		
+		// Assign our attributes from the constructor arguments
+		this.topology = topology;
+		this.rows = topology.getRowCount();
+		this.columns = topology.getColumnCount();
+		this.tileCount = topology.getTileCount();
+		this.maxMines = maxMines;
+		neighbourRows = new int[topology.getMaxNeighbours()];
+		neighbourColumns = new int[topology.getMaxNeighbours()];
+		// The tile stepped on and all of its neighbours
+		safeTiles = new long[topology.getMaxNeighbours() + 1];
+		
+		// Initialize tiles with specified rows and columns, laid out by the topology
+		grid = topology.newGrid(SENTINEL);
+		tileRows = new MineTile[rows][];
+		for (int row = 0; row < rows; row++) {
+			tileRows[row] = grid[topology.gridRowOf(row)];
+		}
+		neighbourOffsets = topology.neighbourOffsets;
+		gridNeighbours = topology.hasGridNeighbours();
+		gridColumns = columns + 2;
+		lastGridRow = grid.length - 1;
+		wraps = topology.wraps;
+	}
+	
+	public void reset() {
+		// Clear every tile in place, so that this Minefield can be reused without reallocating its tiles
+		for (int row = 0; row < rows; row++) {
+			MineTile[] rowTiles = tileRows[row];
+			for (int col = 1; col <= columns; col++) {
+				rowTiles[col].reset();
+			}
+		}
+		mineCount = 0;
+		mismatchCount = 0;
+		revealedCount = 0;
+		placementPending = false;
+		boardId = null;
+		placementCache = null;
+	}
+	
+	public void reset(int maxMines) {
+		// Argument sanity checks for the new number of mines, the same as the constructor's
+		if (maxMines < 0)
+			throw new IllegalArgumentException("Mines cannot be negative");
+		if (maxMines > tileCount - 1)
+			throw new IllegalArgumentException("More mines than tiles available (excluding (0,0))");
+		
+		this.maxMines = maxMines;
+		reset();
+	}
+	
+	public void regenerate() {
+		// Clear the minefield and populate it with a fresh set of mines, reusing the existing tiles and SecureRandom
+		reset();
+		populate();
+	}
+	
+	public void copyFrom(Minefield template) {
+		/* Make this Minefield a copy of another of the same size, tile for tile, without generating anything
+		   BoardCache uses this to hand out a generated board any number of times. Listeners aren't copied. */
+		if (!template.topology.equals(topology))
+			throw new IllegalArgumentException("The template is a different size or shape of minefield");
+		
+		for (int row = 0; row < rows; row++) {
+			MineTile[] rowTiles = tileRows[row];
+			MineTile[] templateTiles = template.tileRows[row];
+			for (int col = 1; col <= columns; col++) {
+				rowTiles[col].copyFrom(templateTiles[col]);
+			}
+		}
+		maxMines = template.maxMines;
+		mineCount = template.mineCount;
+		mismatchCount = template.mismatchCount;
+		revealedCount = template.revealedCount;
+		placementPending = template.placementPending;
+		safeNeighbourhood = template.safeNeighbourhood;
+		boardId = template.boardId;
+		placementCache = template.placementCache;
+	}
+	
+	public void addListener(MinefieldListener listener) {
+		listeners.add(listener);
+	}
+	
+	public void removeListener(MinefieldListener listener) {
+		listeners.remove(listener);
+	}
+	
+	void removeAllListeners() {
+		// For MinefieldPool, so a Minefield that's reused for a new game doesn't tell the previous game's listeners about it
+		listeners.clear();
+	}
+	
+	private void beginEvents() {
+		// Only collect events if somebody is listening, so that there's no cost otherwise
+		if (!listeners.isEmpty()) {
+			pendingEvents = new ArrayList<>();
+			revealedBufferSize = 0;
+		}
+	}
+	
+	private void flushRevealed() {
+		if (pendingEvents == null || revealedBufferSize == 0) {
+			return;
+		}
+		
+		// Sort the revealed tiles' 1D coordinates, then merge consecutive coordinates into ranges
+		Arrays.sort(revealedBuffer, 0, revealedBufferSize);
+		long[] ranges = new long[16];
+		int rangeCount = 0;
+		for (int i = 0; i < revealedBufferSize; i++) {
+			long coord = revealedBuffer[i];
+			if (rangeCount > 0 && ranges[2 * rangeCount - 1] == coord) {
+				// This tile carries on the previous range
+				ranges[2 * rangeCount - 1] = coord + 1;
+			} else {
+				if (2 * rangeCount == ranges.length) {
+					ranges = Arrays.copyOf(ranges, ranges.length * 2);
+				}
+				ranges[2 * rangeCount] = coord;
+				ranges[2 * rangeCount + 1] = coord + 1;
+				rangeCount++;
+			}
+		}
+		pendingEvents.add(new CellRevealed(columns, ranges, rangeCount, revealedBufferSize));
+		revealedBufferSize = 0;
+	}
+	
+	private void endEvents(long mismatchesBefore) {
+		if (pendingEvents == null) {
+			return;
+		}
+		
+		flushRevealed();
+		
+		// The game has just been won if this operation brought the mismatches down to 0
+		if (mismatchCount == 0 && mismatchesBefore != 0) {
+			pendingEvents.add(new GameWon());
+		}
+		
+		// Hand the whole batch over in one go
+		ArrayList<MinefieldEvent> events = pendingEvents;
+		pendingEvents = null;
+		if (!events.isEmpty()) {
+			for (MinefieldListener listener : new ArrayList<>(listeners)) {
+				listener.onEvents(events);
+			}
+		}
+	}
+	
+	private void revealTile(MineTile tile, int gridRow, int gridColumn) {
+		if (pendingEvents != null && !tile.isRevealed()) {
+			// Record the newly revealed tile for this operation's CellRevealed event
+			if (revealedBufferSize == revealedBuffer.length) {
+				revealedBuffer = Arrays.copyOf(revealedBuffer, Math.max(16, revealedBuffer.length * 2));
+			}
+			revealedBuffer[revealedBufferSize++] = toCoordinate(topology.rowOfGridRow(gridRow), gridColumn - 1);
+		}
+		if (!tile.isRevealed()) {
+			revealedCount++;
+			if (MEASURE_MOVES) {
+				revealedThisMove++;
+			}
+		}
+		tile.reveal();
+	}
+	
+	private void updateMismatches(MineTile tile, boolean wasMismatched) {
+		// Keep mismatchCount in step with a tile whose mined or marked state has just changed
+		boolean isMismatched = tile.isMined() ^ tile.isMarked();
+		if (isMismatched && !wasMismatched) {
+			mismatchCount++;
+		} else if (!isMismatched && wasMismatched) {
+			mismatchCount--;
+		}
+	}
+	
+	public boolean areAllMinesRevealed() {
+		// Check whether all mines have been revealed/marked, aka winning the game
+		// isMined XOR isMarked = (isMined AND isMarked) OR (NOT isMined AND NOT isMarked)
+		// "mined tiles are correctly flagged, and no unmined tiles have been incorrectly flagged"
+		// Nothing can be won before the mines have been placed
+		boolean won = mismatchCount == 0 && !placementPending;
+		if (FlightRecording.ENABLED) {
+			FlightRecording.commitWinCheck(won, mismatchCount);
+		}
+		return won;
+	}
+	
+	public void markTile(int row, int column) {
+		// Argument sanity checks for coordinate boundaries
+		if (row < 0 || row >= rows)
+			throw new IllegalArgumentException("Row coordinate out of range");
+		if (column < 0 || column >= columns)
+			throw new IllegalArgumentException("Column coordinate out of range");
+		
+		beginEvents();
+		long mismatchesBefore = mismatchCount;
+		
+		// Toggle marked
+		MineTile tile = getTile(row, column);
+		boolean wasMismatched = tile.isMined() ^ tile.isMarked();
+		tile.toggleMarked();
+		updateMismatches(tile, wasMismatched);
+		
+		if (pendingEvents != null) {
+			pendingEvents.add(new CellMarked(row, column, tile.isMarked()));
+		}
+		endEvents(mismatchesBefore);
+	}
+	
+	public boolean step(int row, int column) {
+		// Argument sanity checks for coordinate boundaries
+		if (row < 0 || row >= rows)
+			throw new IllegalArgumentException("Row coordinate out of range");
+		if (column < 0 || column >= columns)
+			throw new IllegalArgumentException("Column coordinate out of range");
+		
+		long startNanos = MEASURE_MOVES ? startMoveMetrics() : 0;
+		Object revealEvent = FlightRecording.ENABLED ? FlightRecording.beginReveal() : null;
+		beginEvents();
+		long mismatchesBefore = mismatchCount;
+		
+		boolean survived = stepTile(row, column);
+		if (!survived && pendingEvents != null) {
+			pendingEvents.add(new GameLost(row, column));
+		}
+		
+		endEvents(mismatchesBefore);
+		if (MetricsRegistry.ENABLED) {
+			recordMoveMetrics(startNanos);
+		}
+		if (revealEvent != null) {
+			FlightRecording.commitReveal(revealEvent, "step", row, column, revealedThisMove, pushesThisMove, survived);
+		}
+		return survived;
+	}
+	
+	private boolean stepTile(int row, int column) {
+		if (placementPending) {
+			// This is the first step, so now the mines can be placed around it
+			placeMinesAround(row, column);
+		}
+		
+		MineTile tile = getTile(row, column);
+		if (tile.isMined()) {
+			// Unlucky mate, you lose - that tile had a mine on it!
+			return false;
+		}
+		
+		// If mine neighbours > 0, we just reveal the tile, so no need to do recursion or anything...
+		int gridRow = topology.gridRowOf(row);
+		if (tile.getMineNeighbours() > 0) {
+			// Reveal the tile
+			revealTile(tile, gridRow, column + 1);
+		} else {
+			/* When performing very deep recursion (such as when the grid is huge), Java will throw a java.lang.StackOverflowError
+			   To solve this, we'll use our own stack...
+			   https://en.wikipedia.org/wiki/Stack_overflow#Very_deep_recursion */
+			stepCoordinates.clear();
+
+			// Push our first tile onto the stack
+			pushStep(toGridPosition(gridRow, column + 1));
+			
+			revealAll();
+		}
+		
+		return true;
+	}
+	
+	private void pushStep(long position) {
+		if (MEASURE_MOVES) {
+			pushesThisMove++;
+		}
+		stepCoordinates.push(position);
+	}
+	
+	private long toGridPosition(int gridRow, int gridColumn) {
+		/* A tile's position in the grid, as the flood fill's stack holds it
+		   Only a torus has unrevealed tiles in its border, which are the tiles from the other side. They're pushed as
+		   those tiles instead, so every tile on the stack is surrounded by the border, and is only recorded once. */
+		if (wraps) {
+			if (gridColumn == 0) {
+				gridColumn = columns;
+			} else if (gridColumn == columns + 1) {
+				gridColumn = 1;
+			}
+			if (gridRow == 0) {
+				gridRow = lastGridRow - 1;
+			} else if (gridRow == lastGridRow) {
+				gridRow = 1;
+			}
+		}
+		return (long) gridRow * gridColumns + gridColumn;
+	}
+	
+	private long startMoveMetrics() {
+		revealedThisMove = 0;
+		pushesThisMove = 0;
+		peakStepDepth = 0;
+		return System.nanoTime();
+	}
+	
+	private void recordMoveMetrics(long startNanos) {
+		EngineMetrics.STEP_LATENCY.record(System.nanoTime() - startNanos);
+		EngineMetrics.STEP_CELLS_REVEALED.record(revealedThisMove);
+		EngineMetrics.FLOOD_FILL_PEAK_DEPTH.record(peakStepDepth);
+	}
+	
+	private void revealAll() {
+		/* Reveal every tile on the stack, flooding out through every tile with no mined neighbours
+		   The neighbours are the topology's offsets, so this is the same loop whatever the shape of the minefield,
+		   and the border around the tiles means no neighbour is ever off the edge of the grid. Rectangles and tori have
+		   the 8 neighbours of a grid, and those are read without the offsets, which is as fast as the loop over the
+		   classic grid was before there were topologies (see MinefieldBudgetTest.testStepAgainstClampedFloodFill). */
+		MineTile[][] grid = this.grid;
+		boolean gridNeighbours = this.gridNeighbours;
+		int[][] neighbourOffsets = this.neighbourOffsets;
+		LongStack stack = stepCoordinates;
+		long pushes = 0;
+		while (!stack.isEmpty()) {
+			long position = stack.pop();
+			int gridRow = (int) (position / gridColumns);
+			int gridColumn = (int) (position % gridColumns);
+			MineTile tile = grid[gridRow][gridColumn];
+			// A tile can be pushed again by another neighbour before it's revealed, and only needs revealing once
+			if (tile.isRevealed()) {
+				continue;
+			}
+			if (MetricsRegistry.ENABLED) {
+				// Including the tile just popped off the stack
+				peakStepDepth = Math.max(peakStepDepth, stack.size() + 1);
+			}
+			revealTile(tile, gridRow, gridColumn);
+			if (tile.getMineNeighbours() != 0) {
+				continue;
+			}
+			if (gridNeighbours) {
+				// The 3x3 block around the tile, a row at a time, where the tile itself is already revealed
+				for (int neighbourRow = gridRow - 1; neighbourRow <= gridRow + 1; neighbourRow++) {
+					MineTile[] rowTiles = grid[neighbourRow];
+					for (int neighbourColumn = gridColumn - 1; neighbourColumn <= gridColumn + 1; neighbourColumn++) {
+						if (!rowTiles[neighbourColumn].isRevealed()) {
+							stack.push(toGridPosition(neighbourRow, neighbourColumn));
+							pushes++;
+						}
+					}
+				}
+				continue;
+			}
+			int[] offsets = neighbourOffsets[gridRow & 1];
+			for (int offset = 0; offset < offsets.length; offset += 2) {
+				int neighbourRow = gridRow + offsets[offset];
+				int neighbourColumn = gridColumn + offsets[offset + 1];
+				// Don't step into an already revealed tile, which every sentinel is
+				if (!grid[neighbourRow][neighbourColumn].isRevealed()) {
+					stack.push(toGridPosition(neighbourRow, neighbourColumn));
+					pushes++;
+				}
+			}
+		}
+		if (MEASURE_MOVES) {
+			pushesThisMove += pushes;
+		}
+	}
+	
+	public boolean chord(int row, int column) {
+		// Argument sanity checks for coordinate boundaries
+		if (row < 0 || row >= rows)
+			throw new IllegalArgumentException("Row coordinate out of range");
+		if (column < 0 || column >= columns)
+			throw new IllegalArgumentException("Column coordinate out of range");
+		
+		// Chording only does something on a revealed number...
+		MineTile tile = getTile(row, column);
+		if (!tile.isRevealed() || tile.isMined() || tile.getMineNeighbours() == 0) {
+			return true;
+		}
+		
+		// ...whose number of marked neighbours matches its number of mined neighbours
+		int gridRow = topology.gridRowOf(row);
+		int gridColumn = column + 1;
+		int[] offsets = neighbourOffsets[gridRow & 1];
+		int markedNeighbours = 0;
+		for (int offset = 0; offset < offsets.length; offset += 2) {
+			if (grid[gridRow + offsets[offset]][gridColumn + offsets[offset + 1]].isMarked()) {
+				markedNeighbours++;
+			}
+		}
+		if (markedNeighbours != tile.getMineNeighbours()) {
+			return true;
+		}
+		
+		long startNanos = MEASURE_MOVES ? startMoveMetrics() : 0;
+		Object revealEvent = FlightRecording.ENABLED ? FlightRecording.beginReveal() : null;
+		beginEvents();
+		long mismatchesBefore = mismatchCount;
+		
+		// Step on every unmarked, unrevealed neighbour at once, sharing a single stack for all of their flood fills
+		stepCoordinates.clear();
+		boolean survived = true;
+		for (int offset = 0; offset < offsets.length; offset += 2) {
+			int neighbourRow = gridRow + offsets[offset];
+			int neighbourCol = gridColumn + offsets[offset + 1];
+			MineTile neighbourTile = grid[neighbourRow][neighbourCol];
+			if (neighbourTile.isMarked() || neighbourTile.isRevealed()) {
+				continue;
+			}
+			if (neighbourTile.isMined()) {
+				// One of the marks was wrong, you lose!
+				survived = false;
+				if (pendingEvents != null) {
+					pendingEvents.add(new GameLost(topology.rowOfGridRow(neighbourRow), topology.columnOfGridColumn(neighbourCol)));
+				}
+				break;
+			}
+			pushStep(toGridPosition(neighbourRow, neighbourCol));
+		}
+		
+		if (survived) {
+			revealAll();
+		}
+		
+		endEvents(mismatchesBefore);
+		if (MetricsRegistry.ENABLED) {
+			recordMoveMetrics(startNanos);
+		}
+		if (revealEvent != null) {
+			FlightRecording.commitReveal(revealEvent, "chord", row, column, revealedThisMove, pushesThisMove, survived);
+		}
+		return survived;
+	}
+	
+	public boolean mineTile(int row, int column) {
+		// Argument sanity checks for coordinate boundaries and excepting (0,0)
+		if (row < 0 || row >= rows)
+			throw new IllegalArgumentException("Row coordinate out of range");
+		if (column < 0 || column >= columns)
+			throw new IllegalArgumentException("Column coordinate out of range");
+		if (column == 0 && row == 0)
+			throw new IllegalArgumentException("You cannot place a mine at (0,0)");
+		
+		/* If there's already a mine here, or we've already reached the maximum
+		   number of tiles on the minefield, or the tile has already been revealed, return false */
+		MineTile tile = getTile(row, column);
+		if (tile.isMined() || tile.isRevealed() || mineCount >= maxMines) {
+			return false;
+		} else {
+			// Otherwise, place our mine at the provided coordinates
+			boolean wasMismatched = tile.isMarked();
+			tile.setMined(true);
+			updateMismatches(tile, wasMismatched);
+			// Increment mineCount
+			mineCount++;
+			
+			// Increment the number of neighbouring tiles for each neighbouring tile, but not the shared sentinel
+			int gridRow = topology.gridRowOf(row);
+			int gridColumn = column + 1;
+			int[] offsets = neighbourOffsets[gridRow & 1];
+			for (int offset = 0; offset < offsets.length; offset += 2) {
+				MineTile neighbour = grid[gridRow + offsets[offset]][gridColumn + offsets[offset + 1]];
+				if (neighbour != SENTINEL) {
+					neighbour.addMineNeighbour();
+				}
+			}
+			
+			// Mine placement successful, return true
+			return true;
+		}
+	}
+	
+	private static long randomCoordinate(Random random, long bound) {
+		// Generates a random long from 0..(bound - 1), as Random only has a bounded nextInt
+		if (bound <= Integer.MAX_VALUE) {
+			return random.nextInt((int) bound);
+		}
+		// Same approach as nextInt: take 63 random bits, and reject the few values that would bias the result
+		long bits;
+		long value;
+		do {
+			bits = random.nextLong() >>> 1;
+			value = bits % bound;
+		} while (bits - value + (bound - 1) < 0);
+		return value;
+	}
+	
+	private boolean isSafe(long coord) {
+		for (int safe = 0; safe < safeCount; safe++) {
+			if (safeTiles[safe] == coord) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private long countSafeTiles() {
+		// The number of tiles left empty by isSafe, not counting (0,0) which is never mined anyway
+		return safeCount - (isSafe(0) ? 1 : 0);
+	}
+	
+	private void populateBruteforce(Random random, int mines) {
+		// Attempt to place tiles at random tiles until we've placed the amount required
+		while (mineCount < mines) {
+			/* Generates a random integer from 1..(tileCount - 1) = (0,1)..(rows-1,columns-1)
+			   This represents a 1-dimensional tile coordinate that we can convert to 2D */
+			long coord = randomCoordinate(random, tileCount - 1) + 1;
+
+			// Attempt to place a mine at this tile
+			if (!isSafe(coord)) {
+				mineTile(rowOf(coord), columnOf(coord));
+			}
+		}
+	}
+	
+	private void populateFisherYates(Random random, int mines, long candidates) {
+		// Initialize a boolean array which represents the tiles that can be mined in 1D, excluding (0,0) and safe tiles
+		boolean[] randomMines = new boolean[(int) candidates];
+		// Populate the array with specified number of tiles ("true")
+		for (int i = 0; i < mines; i++) {
+			randomMines[i] = true;
+		}
+		
+		/* Perform the Sattolo variant of the Fisher-Yates shuffle
+		   https://en.wikipedia.org/wiki/Fisher%E2%80%93Yates_shuffle#Sattolo%27s_algorithm
+		   https://danluu.com/sattolo/ */
+		int n = randomMines.length;
+		for (int i = 0; i < n - 1; i++) {
+			int max = n - 1;
+			int min = i + 1;
+			
+			// Generate random integer from [min..max]
+			int j = random.nextInt((max - min) + 1) + min;
+			
+			// Swap array[i] and array[j] values
+			boolean swap = randomMines[i];
+			randomMines[i] = randomMines[j];
+			randomMines[j] = swap;
+		}
+		
+		// Populate 2D tiles array using randomized 1D random tiles array, skipping over the safe tiles, which are in order
+		long coord = 1;
+		int nextSafe = 0;
+		while (nextSafe < safeCount && safeTiles[nextSafe] < coord) {
+			nextSafe++;
+		}
+		for (int i = 0; i < randomMines.length; i++, coord++) {
+			while (nextSafe < safeCount && safeTiles[nextSafe] == coord) {
+				coord++;
+				nextSafe++;
+			}
+			if (randomMines[i]) {
+				// Place a mine at this tile
+				mineTile(rowOf(coord), columnOf(coord));
+			}
+		}
+	}
+	
+	// The largest minefield the Fisher-Yates method can shuffle, as its array is indexed by int
+	private static final long MAX_SHUFFLE_TILES = Integer.MAX_VALUE - 8;
+	
+	public void populate() {
+		populate(random());
+	}
+	
+	public void populate(BoardId id) {
+		/* Places the same mines as every other Minefield populated from this ID, so a board can be shared or replayed
+		   The ID's seed drives a java.util.Random, whose sequence is the same on every JVM.
+		   If the ID has an opening, it's kept clear the same way as a first step with safeNeighbourhood. */
+		checkBoardId(id);
+		
+		if (id.hasOpening()) {
+			keepClear(id.getOpeningRow(), id.getOpeningColumn(), true);
+		}
+		populate(id.newRandom());
+		safeCount = 0;
+		boardId = id;
+	}
+	
+	private void checkBoardId(BoardId id) {
+		if (id.getRows() != rows || id.getColumns() != columns || id.getMines() != maxMines)
+			throw new IllegalArgumentException("The board ID is for a different size of minefield");
+	}
+	
+	public BoardId getBoardId() {
+		return boardId;
+	}
+	
+	public void populateOnFirstStep(boolean safeNeighbourhood) {
+		/* Don't place any mines until the first step, then place them anywhere but the tile stepped on
+		   With safeNeighbourhood, its 8 neighbours are kept clear too (if there's room), so the first step opens an area */
+		placementPending = true;
+		this.safeNeighbourhood = safeNeighbourhood;
+		boardId = null;
+		placementCache = null;
+	}
+	
+	public void populateOnFirstStep(BoardId id, BoardCache cache) {
+		/* The same, with the mines placed from the ID's seed: the first step on (row, column) gives the board
+		   id.withOpening(row, column), which getBoardId returns from then on, so it can be shared or replayed exactly.
+		   cache can be null, otherwise boards that have been opened the same way before are copied from it. */
+		checkBoardId(id);
+		if (id.hasOpening())
+			throw new IllegalArgumentException("The board ID has been opened already");
+		
+		placementPending = true;
+		safeNeighbourhood = true;
+		boardId = id;
+		placementCache = cache;
+	}
+	
+	private void keepClear(int row, int column, boolean neighbourhood) {
+		safeTiles[0] = toCoordinate(row, column);
+		safeCount = 1;
+		if (neighbourhood) {
+			int neighbourCount = topology.neighbours(row, column, neighbourRows, neighbourColumns);
+			for (int neighbour = 0; neighbour < neighbourCount; neighbour++) {
+				safeTiles[safeCount++] = toCoordinate(neighbourRows[neighbour], neighbourColumns[neighbour]);
+			}
+			Arrays.sort(safeTiles, 0, safeCount);
+			if (tileCount - 1 - countSafeTiles() < maxMines) {
+				// Too crowded to keep the neighbours clear as well
+				safeTiles[0] = toCoordinate(row, column);
+				safeCount = 1;
+			}
+		}
+	}
+	
+	private void placeMinesAround(int row, int column) {
+		placementPending = false;
+		if (boardId != null) {
+			BoardId opened = boardId.withOpening(row, column);
+			// A cached board can only be copied over this one if nothing's been marked yet, as the copy would clear it
+			if (placementCache != null && mismatchCount == 0) {
+				placementCache.copyTo(opened, this);
+			} else {
+				populate(opened);
+			}
+			placementCache = null;
+			return;
+		}
+		keepClear(row, column, safeNeighbourhood);
+		populate(random());
+		safeCount = 0;
+	}
+	
+	private void populate(Random random) {
+		/* The Fisher-Yates array shuffling algorithm is significantly faster
+		   than the bruteforcing method when the percentage of tiles is >= 60%.
+		   https://plot.ly/~WilliamVenner/2/
+		   Neither places mines on safe tiles. If there are fewer other tiles than mines (when the first step is on a
+		   minefield that's full apart from (0,0)), every one of them is mined and the rest of the mines are left out. */
+		long candidates = tileCount - 1 - countSafeTiles();
+		int mines = (int) Math.min(maxMines, candidates);
+		long startNanos = MetricsRegistry.ENABLED ? System.nanoTime() : 0;
+		Object generationEvent = FlightRecording.ENABLED ? FlightRecording.beginGeneration() : null;
+		if ((float)mines / (float)(candidates + 1) >= 0.6 && candidates <= MAX_SHUFFLE_TILES) {
+			populateFisherYates(random, mines, candidates);
+			if (MetricsRegistry.ENABLED) {
+				EngineMetrics.GENERATION_FISHER_YATES.record(System.nanoTime() - startNanos);
+			}
+			if (generationEvent != null) {
+				FlightRecording.commitGeneration(generationEvent, "fisherYates", rows, columns, mines);
+			}
+		} else {
+			populateBruteforce(random, mines);
+			if (MetricsRegistry.ENABLED) {
+				EngineMetrics.GENERATION_BRUTEFORCE.record(System.nanoTime() - startNanos);
+			}
+			if (generationEvent != null) {
+				FlightRecording.commitGeneration(generationEvent, "bruteforce", rows, columns, mines);
+			}
+		}
+	}
+	
+	static void appendColumnHeader(StringBuilder minefieldStr, int rows, int columns) {
+		/* The column numbers above a rendered minefield, shared with DisplayBoard so a decoded board renders the same
+		   This monstrosity calculates and adds coordinates to the toString() grid */
+		int rowSpaces   = String.valueOf(rows - 1).length() - 1;
+		int columnLines = String.valueOf(columns - 1).length();
+		
+		if (columnLines > 1) {
+			// If our columns >9, we need to print multiple lines and align the numbers vertically...
+			
+			String[][] columnDigits = new String[columns][columnLines];
+			for (int col = 0; col < columns; col++) {
+				String colStr = String.valueOf(col);
+				// If the column's string representation is the same length as the number of lines
+				if (colStr.length() == columnLines) {
+					// We can just make its digits the split version
+					columnDigits[col] = colStr.split("");
+				} else {
+					// Otherwise, we need to "inject" spaces ourselves, and THEN manually "inject" the digits
+					String[] colDigits = colStr.split("");
+					int spacesNeeded = columnLines - colStr.length();
+					for (int space = 0; space < columnLines; space++) {
+						if (space >= spacesNeeded) {
+							columnDigits[col][space] = colDigits[space - spacesNeeded];
+						} else {
+							columnDigits[col][space] = " ";
+						}
+					}
+				}
+			}
+			
+			// This actually adds the column lines to the minefieldStr
+			for (int line = 0; line < columnLines; line++) {
+				StringBuilder lineStr = new StringBuilder();
+				for (int space = 0; space <= rowSpaces + 1; space++) {
+					minefieldStr.append(" ");
+				}
+				for (int col = 0; col < columns; col++) {
+					if (columnDigits[col].length - 1 >= line) {
+						lineStr.append(columnDigits[col][line]);
+					} else {
+						lineStr.append(" ");
+					}
+				}
+				minefieldStr.append(lineStr.toString() + "\n");
+			}
+		} else {
+			// If we only have 1-9 columns, we can just print a single line of them
+			for (int space = 0; space <= rowSpaces + 1; space++) {
+				minefieldStr.append(" ");
+			}
+			for (int col = 0; col < columns; col++) {
+				minefieldStr.append(col);
+			}
+			minefieldStr.append("\n");
+		}
+	}
+	
+	static void appendRowLabel(StringBuilder minefieldStr, int row, int rows) {
+		// The row number in front of each rendered row
+		int rowSpaces = String.valueOf(rows - 1).length() - 1;
+		int rowNumLength = String.valueOf(row).length();
+		for (int space = rowNumLength; space <= rowSpaces; space++) {
+			minefieldStr.append(" ");
+		}
+		minefieldStr.append(row + " ");
+	}
+	
+	public String toString(boolean forceReveal) {
+		long startNanos = MetricsRegistry.ENABLED ? System.nanoTime() : 0;
+		Object renderEvent = FlightRecording.ENABLED ? FlightRecording.beginRender() : null;
+		
+		// Use a StringBuilder here to efficiently allocate memory for repetitive appending
+		StringBuilder minefieldStr = new StringBuilder();
+		
+		// The topology knows how to lay the tiles out
+		topology.render(minefieldStr, tileRows, forceReveal);
+		
+		// Finally, convert the StringBuilder to a string and return it
+		String rendered = minefieldStr.toString();
+		if (MetricsRegistry.ENABLED) {
+			// Every character we render is ASCII, so the length is the number of bytes
+			EngineMetrics.RENDER_BYTES.record(rendered.length());
+			EngineMetrics.RENDER_TIME.record(System.nanoTime() - startNanos);
+		}
+		if (renderEvent != null) {
+			FlightRecording.commitRender(renderEvent, rows, columns, forceReveal, rendered.length());
+		}
+		return rendered;
+	}
+	
+	@Override
+	public String toString() {
+		return this.toString(false);
+	}
+}
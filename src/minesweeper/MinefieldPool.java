@@ -0,0 +1,93 @@
+package minesweeper;
+
+import java.util.ArrayList;
+
+class MinefieldPool {
+	// The maximum number of idle Minefields kept for each board shape and size
+	private final int maxIdlePerSize;
+
+	// One bucket of idle Minefields per topology (shape and size) that has been released to this pool
+	private final ArrayList<Bucket> buckets = new ArrayList<>();
+
+	private static class Bucket {
+		final Topology topology;
+		final Minefield[] idle;
+		int idleCount = 0;
+
+		Bucket(Topology topology, int capacity) {
+			this.topology = topology;
+			this.idle = new Minefield[capacity];
+		}
+	}
+
+	public MinefieldPool(int maxIdlePerSize) {
+		if (maxIdlePerSize <= 0)
+			throw new IllegalArgumentException("Must keep 1 or more idle minefields per size");
+
+		this.maxIdlePerSize = maxIdlePerSize;
+	}
+
+	private Bucket findBucket(Topology topology) {
+		/* There are only ever a handful of distinct boards in play, so a linear scan is cheap
+		   Topologies are equal when they're the same shape and size, so a torus is never handed out as a rectangle */
+		for (int i = 0; i < buckets.size(); i++) {
+			Bucket bucket = buckets.get(i);
+			if (bucket.topology.equals(topology)) {
+				return bucket;
+			}
+		}
+		return null;
+	}
+
+	public Minefield acquire(int rows, int columns, int maxMines) {
+		return acquire(Topology.rectangle(rows, columns), maxMines);
+	}
+
+	public synchronized Minefield acquire(Topology topology, int maxMines) {
+		Bucket bucket = findBucket(topology);
+		if (bucket == null || bucket.idleCount == 0) {
+			// Nothing to reuse for this shape and size, so we'll have to allocate a new Minefield
+			return new Minefield(topology, maxMines);
+		}
+
+		// Take the most recently released Minefield, it's the most likely to still be in the CPU cache
+		Minefield minefield = bucket.idle[--bucket.idleCount];
+		bucket.idle[bucket.idleCount] = null;
+
+		// Clear it, ready for the new game
+		minefield.reset(maxMines);
+		return minefield;
+	}
+
+	public synchronized void release(Minefield minefield) {
+		// Whoever was listening to the finished game isn't listening to the next one
+		minefield.removeAllListeners();
+		
+		Bucket bucket = findBucket(minefield.getTopology());
+		if (bucket == null) {
+			bucket = new Bucket(minefield.getTopology(), maxIdlePerSize);
+			buckets.add(bucket);
+		}
+
+		// Don't let the same Minefield be handed out twice
+		for (int i = 0; i < bucket.idleCount; i++) {
+			if (bucket.idle[i] == minefield) {
+				return;
+			}
+		}
+
+		// If the bucket is already full, let the garbage collector have this one
+		if (bucket.idleCount < maxIdlePerSize) {
+			bucket.idle[bucket.idleCount++] = minefield;
+		}
+	}
+
+	public int getIdleCount(int rows, int columns) {
+		return getIdleCount(Topology.rectangle(rows, columns));
+	}
+
+	public synchronized int getIdleCount(Topology topology) {
+		Bucket bucket = findBucket(topology);
+		return bucket == null ? 0 : bucket.idleCount;
+	}
+}
@@ -1,16 +1,65 @@
-package minesweeper;
-
-public class Minesweeper {
-	private static Minefield minefield;
-	private static CommandLineListener commandLineListener;
-
-	public static void main(String[] args) {
-		commandLineListener = new CommandLineListener();
-	}
-	
-	static Minefield newGame(int rows, int columns, int maxMines) {
-		minefield = new Minefield(rows, columns, maxMines);
-		minefield.populate();
-		return minefield;
-	}
-}
+package minesweeper;
+
+import java.io.IOException;
+
+public class Minesweeper {
+	private static Minefield minefield;
+	private static CommandLineListener commandLineListener;
+
+	// Finished Minefields are recycled here, so starting another game of the same size doesn't allocate a new board
+	private static final MinefieldPool minefieldPool = new MinefieldPool(4);
+
+	// Boards started by ID, so that everybody playing the same board shares one generated copy
+	private static final BoardCache boardCache = new BoardCache(16);
+
+	// Run with -Dminesweeper.spectatorPort=<port> to let others watch the game, see SpectatorBroadcaster
+	private static SpectatorBroadcaster spectators;
+
+	public static void main(String[] args) {
+		Integer spectatorPort = Integer.getInteger("minesweeper.spectatorPort");
+		if (spectatorPort != null) {
+			try {
+				spectators = new SpectatorBroadcaster(spectatorPort, 32, 256);
+				System.out.println("Spectators can watch on port " + spectators.getPort());
+			} catch (IOException e) {
+				// Spectating is optional, so carry on without it
+				System.err.println("Couldn't start the spectator broadcast: " + e);
+			}
+		}
+		commandLineListener = new CommandLineListener();
+	}
+
+	static Minefield newGame(int rows, int columns, int maxMines) {
+		// A new game is a board with a random seed, so it can be shared or replayed like any other
+		return newGame(BoardId.random(rows, columns, maxMines));
+	}
+
+	static Minefield newGame(BoardId id) {
+		startGame(id.getRows(), id.getColumns(), id.getMines());
+		if (id.hasOpening()) {
+			// Replaying a board that's been played before, so take the same first step that was taken then
+			boardCache.copyTo(id, minefield);
+			minefield.step(id.getOpeningRow(), id.getOpeningColumn());
+		} else {
+			// The mines are placed from the ID by the first step, which always opens an area
+			minefield.populateOnFirstStep(id, boardCache);
+		}
+		return attachSpectators();
+	}
+
+	private static void startGame(int rows, int columns, int maxMines) {
+		// Starting a new game ends the previous one, so its Minefield can go back into the pool
+		if (minefield != null) {
+			minefieldPool.release(minefield);
+		}
+
+		minefield = minefieldPool.acquire(rows, columns, maxMines);
+	}
+
+	private static Minefield attachSpectators() {
+		if (spectators != null) {
+			spectators.attach(minefield);
+		}
+		return minefield;
+	}
+}
@@ -0,0 +1,213 @@
+package minesweeper;
+
+import java.io.Closeable;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+
+final class OutputPipeline implements Closeable {
+	/* Writes the command line's output on its own thread, so the game never waits for the console
+	   The game thread submits one frame per command (the board, any messages and the prompt) into a bounded queue.
+	   A writer thread copies frames into a large buffer and writes it to the channel whenever the queue runs dry.
+	   A replaceable frame (an ordinary board after a move) replaces the replaceable frame queued just before it,
+	   so when the console lags only the latest board is written. Frames with anything worth keeping in them
+	   (errors, wins, losses, new games) are never replaced, and are written in order. */
+	static final int DEFAULT_QUEUE_CAPACITY = 64;
+	static final int DEFAULT_BUFFER_SIZE = 1 << 18;
+
+	private static final class Frame {
+		final String text;
+		final boolean replaceable;
+
+		Frame(String text, boolean replaceable) {
+			this.text = text;
+			this.replaceable = replaceable;
+		}
+	}
+
+	private final WritableByteChannel channel;
+	private final Charset charset;
+	private final ByteBuffer buffer;
+	private final int queueCapacity;
+
+	// Guarded by queue
+	private final ArrayDeque<Frame> queue = new ArrayDeque<>();
+	private boolean closed = false;
+	private IOException failure;
+	private long coalescedCount = 0;
+	// Frames queued and never replaced, and how many of those have reached the channel, for flush
+	private long queuedCount = 0;
+	private long writtenCount = 0;
+
+	private final Thread writer;
+
+	OutputPipeline() {
+		this(new FileOutputStream(FileDescriptor.out).getChannel(), DEFAULT_QUEUE_CAPACITY, DEFAULT_BUFFER_SIZE);
+	}
+
+	OutputPipeline(WritableByteChannel channel, int queueCapacity, int bufferSize) {
+		if (queueCapacity < 1)
+			throw new IllegalArgumentException("The queue must hold at least one frame");
+		if (bufferSize < 1)
+			throw new IllegalArgumentException("The buffer must hold at least one byte");
+
+		this.channel = channel;
+		this.queueCapacity = queueCapacity;
+		charset = Charset.defaultCharset();
+		buffer = ByteBuffer.allocateDirect(bufferSize);
+
+		// A daemon never keeps the JVM alive, so whoever submits frames must close() it to have the last ones written
+		writer = new Thread(this::writeFrames, "minesweeper-output");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	public void submit(String text, boolean replaceable) throws IOException {
+		Frame frame = new Frame(text, replaceable);
+		synchronized (queue) {
+			if (closed)
+				throw new IllegalStateException("The output pipeline is closed");
+			if (failure != null)
+				throw failure;
+
+			Frame last = queue.peekLast();
+			if (replaceable && last != null && last.replaceable) {
+				// The writer hasn't got to the last board yet, and nobody needs to see it now
+				queue.pollLast();
+				coalescedCount++;
+				queuedCount--;
+			}
+			// Only frames that can't be replaced can fill the queue, and then the game waits for the writer
+			while (queue.size() >= queueCapacity && failure == null) {
+				try {
+					queue.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted waiting for the output queue");
+				}
+			}
+			if (failure != null)
+				throw failure;
+			queue.addLast(frame);
+			queuedCount++;
+			queue.notifyAll();
+		}
+	}
+
+	public void flush() throws IOException {
+		/* Waits until every frame submitted so far has been written to the channel
+		   Anything written straight to the console afterwards, such as a message on stderr, then shows up after them */
+		synchronized (queue) {
+			while (writtenCount < queuedCount && failure == null && writer.isAlive()) {
+				try {
+					queue.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted waiting for the output to be written");
+				}
+			}
+			if (failure != null)
+				throw failure;
+		}
+	}
+
+	public long getCoalescedCount() {
+		synchronized (queue) {
+			return coalescedCount;
+		}
+	}
+
+	private void writeFrames() {
+		// The frames put in the buffer since it was last drained
+		long buffered = 0;
+		try {
+			while (true) {
+				Frame frame;
+				synchronized (queue) {
+					while (queue.isEmpty() && !closed) {
+						queue.wait();
+					}
+					frame = queue.pollFirst();
+					queue.notifyAll();
+				}
+				if (frame == null) {
+					// Closed, and every frame has been written
+					return;
+				}
+				put(frame.text.getBytes(charset));
+				buffered++;
+
+				boolean drained;
+				synchronized (queue) {
+					drained = queue.isEmpty();
+				}
+				if (drained) {
+					// Nothing more is coming yet, so show what we have
+					drain();
+					synchronized (queue) {
+						writtenCount += buffered;
+						queue.notifyAll();
+					}
+					buffered = 0;
+				}
+			}
+		} catch (IOException e) {
+			synchronized (queue) {
+				failure = e;
+				queue.clear();
+				queue.notifyAll();
+			}
+		} catch (InterruptedException e) {
+			// Only interrupted on purpose, when the JVM is going away
+		} finally {
+			// Wake up anyone still flushing, as nothing more will be written
+			synchronized (queue) {
+				queue.notifyAll();
+			}
+		}
+	}
+
+	private void put(byte[] bytes) throws IOException {
+		int offset = 0;
+		while (offset < bytes.length) {
+			if (!buffer.hasRemaining()) {
+				drain();
+			}
+			int length = Math.min(buffer.remaining(), bytes.length - offset);
+			buffer.put(bytes, offset, length);
+			offset += length;
+		}
+	}
+
+	private void drain() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	@Override
+	public void close() throws IOException {
+		// Waits for every frame to be written, without closing the channel (which is usually stdout)
+		synchronized (queue) {
+			closed = true;
+			queue.notifyAll();
+		}
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted waiting for the output to be written");
+		}
+		synchronized (queue) {
+			if (failure != null)
+				throw failure;
+		}
+	}
+}
@@ -0,0 +1,270 @@
+package minesweeper;
+
+final class PersistentBoard {
+	/* An immutable minefield, stored as a tree of fixed-size blocks of tiles
+	   Every change returns a new PersistentBoard which shares all of the untouched blocks with the old one,
+	   so taking a snapshot is free (just keep the reference) and a move only copies the blocks it changes,
+	   plus the path of branches above them. This makes undo/redo and solver lookahead cheap on big boards. */
+
+	// Leaves hold 64 tiles each, and each branch has 32 children
+	private static final int LEAF_BITS = 6;
+	private static final int LEAF_SIZE = 1 << LEAF_BITS;
+	private static final int BRANCH_BITS = 5;
+	private static final int BRANCH_SIZE = 1 << BRANCH_BITS;
+
+	// Each tile is packed into a byte: the mine neighbour count in the bottom 5 bits (a cube has up to 26), then 3 flags
+	private static final int NEIGHBOURS_MASK = 0x1F;
+	private static final int MINED = 0x20;
+	private static final int REVEALED = 0x40;
+	private static final int MARKED = 0x80;
+
+	private static final class Node {
+		/* The Editor which created this node, and so may still change it in place
+		   Once the Editor has built its board it's never used again, so from then on the node is immutable */
+		final Object owner;
+		// Exactly one of these is set, cells for a leaf and children for a branch
+		final byte[] cells;
+		final Node[] children;
+
+		Node(Object owner, byte[] cells, Node[] children) {
+			this.owner = owner;
+			this.cells = cells;
+			this.children = children;
+		}
+
+		Node copy(Object newOwner) {
+			return new Node(newOwner, cells == null ? null : cells.clone(), children == null ? null : children.clone());
+		}
+	}
+
+	// The shape of the board, shared by every version of it, whose flood fill is the same one Minefield uses
+	private final Topology topology;
+	private final int rows;
+	private final int columns;
+	// The number of levels of branches above the leaves
+	private final int depth;
+	private final Node root;
+
+	// The number of tiles which are mined XOR marked, so checking for a win is O(1)
+	private final long mismatchCount;
+	// Whether a mine has been stepped on
+	private final boolean lost;
+
+	private PersistentBoard(Topology topology, int depth, Node root, long mismatchCount, boolean lost) {
+		this.topology = topology;
+		this.rows = topology.getRowCount();
+		this.columns = topology.getColumnCount();
+		this.depth = depth;
+		this.root = root;
+		this.mismatchCount = mismatchCount;
+		this.lost = lost;
+	}
+
+	public static PersistentBoard empty(int rows, int columns) {
+		// The classic grid
+		return empty(Topology.rectangle(rows, columns));
+	}
+
+	public static PersistentBoard empty(Topology topology) {
+		// Work out how many levels of branches are needed to cover every tile
+		long tileCount = topology.getTileCount();
+		int depth = 0;
+		for (long capacity = LEAF_SIZE; capacity < tileCount; capacity *= BRANCH_SIZE) {
+			depth++;
+		}
+
+		/* An empty board needs only one node per level, as every child of a branch is the same empty subtree
+		   Blocks are only copied once something is written to them */
+		Node node = new Node(null, new byte[LEAF_SIZE], null);
+		for (int level = 1; level <= depth; level++) {
+			Node[] children = new Node[BRANCH_SIZE];
+			for (int child = 0; child < BRANCH_SIZE; child++) {
+				children[child] = node;
+			}
+			node = new Node(null, null, children);
+		}
+		return new PersistentBoard(topology, depth, node, 0, false);
+	}
+
+	public static PersistentBoard of(Minefield minefield) {
+		// Copy the state of every tile of a Minefield, leaving blocks of untouched tiles shared
+		Editor editor = empty(minefield.getTopology()).edit();
+		for (int row = 0; row < minefield.getRowCount(); row++) {
+			for (int col = 0; col < minefield.getColumnCount(); col++) {
+				MineTile tile = minefield.getTile(row, col);
+				int cell = tile.getMineNeighbours();
+				if (tile.isMined()) cell |= MINED;
+				if (tile.isRevealed()) cell |= REVEALED;
+				if (tile.isMarked()) cell |= MARKED;
+				if (cell != 0) {
+					editor.set(minefield.toCoordinate(row, col), cell);
+				}
+			}
+		}
+		return editor.build(false);
+	}
+
+	public Topology getTopology() {
+		return topology;
+	}
+
+	public int getRowCount() {
+		return rows;
+	}
+
+	public int getColumnCount() {
+		return columns;
+	}
+
+	public boolean isLost() {
+		return lost;
+	}
+
+	public boolean areAllMinesRevealed() {
+		// A lost board isn't won, even when the mine that was stepped on was the last tile left
+		return !lost && mismatchCount == 0;
+	}
+
+	private long toCoordinate(int row, int column) {
+		// Argument sanity checks for coordinate boundaries
+		if (row < 0 || row >= rows)
+			throw new IllegalArgumentException("Row coordinate out of range");
+		if (column < 0 || column >= columns)
+			throw new IllegalArgumentException("Column coordinate out of range");
+
+		// Row-major, like Minefield.toCoordinate
+		return (long) row * columns + column;
+	}
+
+	private static int childIndex(long coord, int level) {
+		// Which child of a branch at this level (1 = just above the leaves) the tile is under
+		return (int) (coord >>> (LEAF_BITS + (level - 1) * BRANCH_BITS)) & (BRANCH_SIZE - 1);
+	}
+
+	private Node leafOf(Node node, long coord) {
+		for (int level = depth; level > 0; level--) {
+			node = node.children[childIndex(coord, level)];
+		}
+		return node;
+	}
+
+	private int cellAt(long coord) {
+		return leafOf(root, coord).cells[(int) (coord & (LEAF_SIZE - 1))] & 0xFF;
+	}
+
+	public boolean isMined(int row, int column) {
+		return (cellAt(toCoordinate(row, column)) & MINED) != 0;
+	}
+
+	public boolean isRevealed(int row, int column) {
+		return (cellAt(toCoordinate(row, column)) & REVEALED) != 0;
+	}
+
+	public boolean isMarked(int row, int column) {
+		return (cellAt(toCoordinate(row, column)) & MARKED) != 0;
+	}
+
+	public int getMineNeighbours(int row, int column) {
+		return cellAt(toCoordinate(row, column)) & NEIGHBOURS_MASK;
+	}
+
+	// Whether this board and another one share the same block of tiles around (row, column), for tests
+	boolean sharesBlock(PersistentBoard other, int row, int column) {
+		long coord = toCoordinate(row, column);
+		return leafOf(root, coord) == other.leafOf(other.root, coord);
+	}
+
+	public PersistentBoard mark(int row, int column) {
+		long coord = toCoordinate(row, column);
+		Editor editor = edit();
+		// Toggle marked
+		editor.set(coord, editor.get(coord) ^ MARKED);
+		return editor.build(lost);
+	}
+
+	public PersistentBoard step(int row, int column) {
+		/* The same reveal as Minefield.step on a populated minefield
+		   Stepping on a mine reveals it and returns a lost board */
+		long seed = toCoordinate(row, column);
+		Editor editor = edit();
+
+		int seedCell = editor.get(seed);
+		if ((seedCell & MINED) != 0) {
+			editor.set(seed, seedCell | REVEALED);
+			return editor.build(true);
+		}
+
+		// The same flood fill as Minefield's, run by the topology over the editor's tiles
+		LongStack stepCoordinates = new LongStack(16);
+		stepCoordinates.push(seed);
+		topology.reveal(stepCoordinates, editor);
+
+		return editor.build(false);
+	}
+
+	private Editor edit() {
+		return new Editor();
+	}
+
+	private final class Editor implements Topology.Tiles {
+		/* Builds the next version of the board
+		   The first write to a block copies it (and the branches above it), and marks the copies as owned by this Editor,
+		   so later writes to the same block during the same operation change it in place instead of copying it again */
+		private final Object owner = new Object();
+		private Node editRoot = root;
+		private long editMismatches = mismatchCount;
+
+		int get(long coord) {
+			return leafOf(editRoot, coord).cells[(int) (coord & (LEAF_SIZE - 1))] & 0xFF;
+		}
+
+		void set(long coord, int cell) {
+			int old = get(coord);
+			if (old == cell) {
+				// Nothing changes, so keep sharing the block
+				return;
+			}
+			boolean wasMismatched = ((old & MINED) != 0) ^ ((old & MARKED) != 0);
+			boolean isMismatched = ((cell & MINED) != 0) ^ ((cell & MARKED) != 0);
+			editMismatches += (isMismatched ? 1 : 0) - (wasMismatched ? 1 : 0);
+
+			editRoot = editable(editRoot);
+			Node node = editRoot;
+			for (int level = depth; level > 0; level--) {
+				int child = childIndex(coord, level);
+				Node editableChild = editable(node.children[child]);
+				node.children[child] = editableChild;
+				node = editableChild;
+			}
+			node.cells[(int) (coord & (LEAF_SIZE - 1))] = (byte) cell;
+		}
+
+		@Override
+		public boolean isRevealed(int row, int column) {
+			return (get((long) row * columns + column) & REVEALED) != 0;
+		}
+
+		@Override
+		public int reveal(int row, int column) {
+			long coord = (long) row * columns + column;
+			int cell = get(coord);
+			if ((cell & REVEALED) != 0) {
+				return -1;
+			}
+			set(coord, cell | REVEALED);
+			return cell & NEIGHBOURS_MASK;
+		}
+
+		private Node editable(Node node) {
+			return node.owner == owner ? node : node.copy(owner);
+		}
+
+		PersistentBoard build(boolean lost) {
+			if (editRoot == root && lost == PersistentBoard.this.lost) {
+				// Nothing changed at all
+				return PersistentBoard.this;
+			}
+			return new PersistentBoard(topology, depth, editRoot, editMismatches, lost);
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package minesweeper.Results;
+
+public final class BoardStats {
+	// The results of every recorded game of one board size
+	private final int rows;
+	private final int columns;
+	private long games = 0;
+	private long wins = 0;
+	private long bestMillis = -1;
+
+	BoardStats(int rows, int columns) {
+		this.rows = rows;
+		this.columns = columns;
+	}
+
+	void add(boolean won, long durationMillis) {
+		games++;
+		if (won) {
+			wins++;
+			if (bestMillis < 0 || durationMillis < bestMillis) {
+				bestMillis = durationMillis;
+			}
+		}
+	}
+
+	public int getRowCount() {
+		return rows;
+	}
+
+	public int getColumnCount() {
+		return columns;
+	}
+
+	public long getGameCount() {
+		return games;
+	}
+
+	public long getWinCount() {
+		return wins;
+	}
+
+	public double getWinRate() {
+		return games == 0 ? 0 : (double) wins / games;
+	}
+
+	// The fastest win, or -1 if no game of this size has been won
+	public long getBestMillis() {
+		return bestMillis;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%dx%d: %d games, %.1f%% won, best %s",
+			rows, columns, games, getWinRate() * 100, bestMillis < 0 ? "-" : String.format("%.3fs", bestMillis / 1000.0));
+	}
+}
@@ -0,0 +1,89 @@
+package minesweeper.Results;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+final class ColumnCodec {
+	/* Compresses one column of a block of results
+	   Values are stored as the difference from the previous value, zigzag encoded so small negative differences
+	   stay small, as variable-length integers, and then deflated. Most columns (board size, mine count, outcome)
+	   barely change between games, so they shrink to a handful of bytes per block. */
+
+	private ColumnCodec() {
+	}
+
+	static byte[] encode(long[] values, int count) {
+		// Delta + zigzag + varint
+		byte[] packed = new byte[count * 10];
+		int length = 0;
+		long previous = 0;
+		for (int i = 0; i < count; i++) {
+			long delta = values[i] - previous;
+			previous = values[i];
+			long zigzag = (delta << 1) ^ (delta >> 63);
+			while ((zigzag & ~0x7FL) != 0) {
+				packed[length++] = (byte) ((zigzag & 0x7F) | 0x80);
+				zigzag >>>= 7;
+			}
+			packed[length++] = (byte) zigzag;
+		}
+
+		// Then deflate
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			deflater.setInput(packed, 0, length);
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(length / 4, 16));
+			byte[] chunk = new byte[4096];
+			while (!deflater.finished()) {
+				int deflated = deflater.deflate(chunk);
+				out.write(chunk, 0, deflated);
+			}
+			return out.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	static long[] decode(byte[] bytes, int count) throws IOException {
+		// Inflate, with a spare byte so the end of the stream is always reached
+		byte[] packed = new byte[count * 10 + 1];
+		int length;
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(bytes);
+			length = inflater.inflate(packed);
+			if (!inflater.finished()) {
+				throw new IOException("Corrupt results column");
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("Corrupt results column", e);
+		} finally {
+			inflater.end();
+		}
+
+		// Then undo the varint, zigzag and delta
+		long[] values = new long[count];
+		int position = 0;
+		long previous = 0;
+		for (int i = 0; i < count; i++) {
+			long zigzag = 0;
+			int shift = 0;
+			byte b;
+			do {
+				if (position >= length) {
+					throw new IOException("Corrupt results column");
+				}
+				b = packed[position++];
+				zigzag |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			previous += (zigzag >>> 1) ^ -(zigzag & 1);
+			values[i] = previous;
+		}
+		return values;
+	}
+}
@@ -0,0 +1,56 @@
+package minesweeper.Results;
+
+public final class GameResult {
+	private final int rows;
+	private final int columns;
+	private final int mines;
+	// 0 when the board wasn't generated from a known seed
+	private final long seed;
+	private final int moves;
+	private final long durationMillis;
+	private final boolean won;
+
+	public GameResult(int rows, int columns, int mines, long seed, int moves, long durationMillis, boolean won) {
+		this.rows = rows;
+		this.columns = columns;
+		this.mines = mines;
+		this.seed = seed;
+		this.moves = moves;
+		this.durationMillis = durationMillis;
+		this.won = won;
+	}
+
+	public int getRowCount() {
+		return rows;
+	}
+
+	public int getColumnCount() {
+		return columns;
+	}
+
+	public int getMineCount() {
+		return mines;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public int getMoveCount() {
+		return moves;
+	}
+
+	public long getDurationMillis() {
+		return durationMillis;
+	}
+
+	public boolean isWon() {
+		return won;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%dx%d, %d mines, %s in %d moves and %.3fs",
+			rows, columns, mines, won ? "won" : "lost", moves, durationMillis / 1000.0);
+	}
+}
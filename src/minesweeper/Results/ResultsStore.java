@@ -0,0 +1,391 @@
+package minesweeper.Results;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+public final class ResultsStore implements Closeable {
+	/* An append-only store of finished games, kept in a directory of three files:
+	     results.tail  the newest games, one fixed-size record each, until there are enough to make a block
+	     results.col   blocks of blockSize games, stored column by column, each column compressed by ColumnCodec
+	     results.idx   one fixed-size entry per block: where its columns are, plus the min/max of a few columns
+	   Only the index is kept in memory. A query reads just the columns it needs, and only from the blocks
+	   whose min/max show they can contain a match, so it stays fast with millions of games on disk. */
+	static final int DEFAULT_BLOCK_SIZE = 4096;
+
+	private static final int ROWS = 0;
+	private static final int COLUMNS = 1;
+	private static final int MINES = 2;
+	private static final int SEED = 3;
+	private static final int MOVES = 4;
+	private static final int DURATION = 5;
+	private static final int WON = 6;
+	private static final int COLUMN_COUNT = 7;
+
+	private static final int INDEX_MAGIC = 0x4D535249; // "MSRI"
+	private static final int INDEX_VERSION = 1;
+	private static final int INDEX_HEADER_SIZE = 8;
+	// offset, count, the length of each column, min/max rows and columns, wins, and the fastest win
+	private static final int INDEX_ENTRY_SIZE = 8 + 4 + 4 * COLUMN_COUNT + 4 * 4 + 4 + 8;
+	// The number of games already in blocks when the tail was started
+	private static final int TAIL_HEADER_SIZE = 8;
+	private static final int TAIL_RECORD_SIZE = 4 + 4 + 4 + 8 + 4 + 8 + 1;
+
+	private static final class Block {
+		long offset;
+		int count;
+		final int[] lengths = new int[COLUMN_COUNT];
+		int minRows;
+		int maxRows;
+		int minColumns;
+		int maxColumns;
+		int wins;
+		// -1 if none of the games in the block were won
+		long bestMillis;
+
+		long columnOffset(int column) {
+			long position = offset;
+			for (int i = 0; i < column; i++) {
+				position += lengths[i];
+			}
+			return position;
+		}
+	}
+
+	private final int blockSize;
+	private final FileChannel data;
+	private final FileChannel index;
+	private final FileChannel tail;
+
+	private final ArrayList<Block> blocks = new ArrayList<>();
+	private long blockedCount = 0;
+	private final ArrayList<GameResult> tailResults = new ArrayList<>();
+
+	public ResultsStore(Path directory) throws IOException {
+		this(directory, DEFAULT_BLOCK_SIZE);
+	}
+
+	ResultsStore(Path directory, int blockSize) throws IOException {
+		if (blockSize <= 0)
+			throw new IllegalArgumentException("Block size must be 1 or more");
+		this.blockSize = blockSize;
+
+		Files.createDirectories(directory);
+		data = open(directory.resolve("results.col"));
+		index = open(directory.resolve("results.idx"));
+		tail = open(directory.resolve("results.tail"));
+
+		try {
+			recover();
+		} catch (IOException | RuntimeException e) {
+			close();
+			throw e;
+		}
+	}
+
+	private static FileChannel open(Path path) throws IOException {
+		return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+	}
+
+	private void recover() throws IOException {
+		/* Load the index, and tidy up after a crash part way through an append or a compaction:
+		   a half-written index entry or block is dropped, and games in the tail which made it into a block are skipped */
+		if (index.size() < INDEX_HEADER_SIZE) {
+			ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_SIZE);
+			header.putInt(INDEX_MAGIC).putInt(INDEX_VERSION).flip();
+			index.truncate(0);
+			writeFully(index, header, 0);
+			index.force(true);
+		} else {
+			ByteBuffer header = readFully(index, 0, INDEX_HEADER_SIZE);
+			if (header.getInt() != INDEX_MAGIC || header.getInt() != INDEX_VERSION)
+				throw new IOException("Not a results index, or from an unsupported version");
+		}
+
+		long entries = (index.size() - INDEX_HEADER_SIZE) / INDEX_ENTRY_SIZE;
+		long dataEnd = 0;
+		for (long entry = 0; entry < entries; entry++) {
+			ByteBuffer buffer = readFully(index, INDEX_HEADER_SIZE + entry * INDEX_ENTRY_SIZE, INDEX_ENTRY_SIZE);
+			Block block = new Block();
+			block.offset = buffer.getLong();
+			block.count = buffer.getInt();
+			for (int column = 0; column < COLUMN_COUNT; column++) {
+				block.lengths[column] = buffer.getInt();
+			}
+			block.minRows = buffer.getInt();
+			block.maxRows = buffer.getInt();
+			block.minColumns = buffer.getInt();
+			block.maxColumns = buffer.getInt();
+			block.wins = buffer.getInt();
+			block.bestMillis = buffer.getLong();
+
+			long blockEnd = block.columnOffset(COLUMN_COUNT);
+			if (blockEnd > data.size()) {
+				// The index entry was written but its block never reached the disk
+				break;
+			}
+			blocks.add(block);
+			blockedCount += block.count;
+			dataEnd = blockEnd;
+		}
+		index.truncate(INDEX_HEADER_SIZE + (long) blocks.size() * INDEX_ENTRY_SIZE);
+		data.truncate(dataEnd);
+
+		// Then the tail
+		long base = blockedCount;
+		int records = 0;
+		if (tail.size() >= TAIL_HEADER_SIZE) {
+			base = readFully(tail, 0, TAIL_HEADER_SIZE).getLong();
+			records = (int) ((tail.size() - TAIL_HEADER_SIZE) / TAIL_RECORD_SIZE);
+		}
+		long alreadyBlocked = Math.max(blockedCount - base, 0);
+		for (int record = (int) Math.min(alreadyBlocked, records); record < records; record++) {
+			tailResults.add(readRecord(readFully(tail, TAIL_HEADER_SIZE + (long) record * TAIL_RECORD_SIZE, TAIL_RECORD_SIZE)));
+		}
+		if (base != blockedCount || tail.size() != TAIL_HEADER_SIZE + (long) records * TAIL_RECORD_SIZE) {
+			// Rewrite the tail with only the games which still need it
+			rewriteTail();
+		}
+	}
+
+	public synchronized void append(GameResult result) throws IOException {
+		ByteBuffer record = ByteBuffer.allocate(TAIL_RECORD_SIZE);
+		writeRecord(record, result);
+		record.flip();
+		writeFully(tail, record, tail.size());
+		tail.force(false);
+		tailResults.add(result);
+
+		if (tailResults.size() >= blockSize) {
+			compact();
+		}
+	}
+
+	private void compact() throws IOException {
+		// Turn the tail into a block: write the block, then its index entry, then empty the tail
+		int count = tailResults.size();
+		long[][] values = new long[COLUMN_COUNT][count];
+		Block block = new Block();
+		block.offset = data.size();
+		block.count = count;
+		block.minRows = Integer.MAX_VALUE;
+		block.maxRows = Integer.MIN_VALUE;
+		block.minColumns = Integer.MAX_VALUE;
+		block.maxColumns = Integer.MIN_VALUE;
+		block.bestMillis = -1;
+		for (int i = 0; i < count; i++) {
+			GameResult result = tailResults.get(i);
+			values[ROWS][i] = result.getRowCount();
+			values[COLUMNS][i] = result.getColumnCount();
+			values[MINES][i] = result.getMineCount();
+			values[SEED][i] = result.getSeed();
+			values[MOVES][i] = result.getMoveCount();
+			values[DURATION][i] = result.getDurationMillis();
+			values[WON][i] = result.isWon() ? 1 : 0;
+
+			block.minRows = Math.min(block.minRows, result.getRowCount());
+			block.maxRows = Math.max(block.maxRows, result.getRowCount());
+			block.minColumns = Math.min(block.minColumns, result.getColumnCount());
+			block.maxColumns = Math.max(block.maxColumns, result.getColumnCount());
+			if (result.isWon()) {
+				block.wins++;
+				if (block.bestMillis < 0 || result.getDurationMillis() < block.bestMillis) {
+					block.bestMillis = result.getDurationMillis();
+				}
+			}
+		}
+
+		long position = block.offset;
+		for (int column = 0; column < COLUMN_COUNT; column++) {
+			byte[] encoded = ColumnCodec.encode(values[column], count);
+			block.lengths[column] = encoded.length;
+			writeFully(data, ByteBuffer.wrap(encoded), position);
+			position += encoded.length;
+		}
+		data.force(false);
+
+		ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+		entry.putLong(block.offset).putInt(block.count);
+		for (int column = 0; column < COLUMN_COUNT; column++) {
+			entry.putInt(block.lengths[column]);
+		}
+		entry.putInt(block.minRows).putInt(block.maxRows).putInt(block.minColumns).putInt(block.maxColumns);
+		entry.putInt(block.wins).putLong(block.bestMillis);
+		entry.flip();
+		writeFully(index, entry, INDEX_HEADER_SIZE + (long) blocks.size() * INDEX_ENTRY_SIZE);
+		index.force(false);
+
+		blocks.add(block);
+		blockedCount += count;
+		tailResults.clear();
+		rewriteTail();
+	}
+
+	private void rewriteTail() throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(TAIL_HEADER_SIZE + tailResults.size() * TAIL_RECORD_SIZE);
+		buffer.putLong(blockedCount);
+		for (GameResult result : tailResults) {
+			writeRecord(buffer, result);
+		}
+		buffer.flip();
+		tail.truncate(0);
+		writeFully(tail, buffer, 0);
+		tail.force(false);
+	}
+
+	private static void writeRecord(ByteBuffer buffer, GameResult result) {
+		buffer.putInt(result.getRowCount());
+		buffer.putInt(result.getColumnCount());
+		buffer.putInt(result.getMineCount());
+		buffer.putLong(result.getSeed());
+		buffer.putInt(result.getMoveCount());
+		buffer.putLong(result.getDurationMillis());
+		buffer.put((byte) (result.isWon() ? 1 : 0));
+	}
+
+	private static GameResult readRecord(ByteBuffer buffer) {
+		return new GameResult(buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getLong(),
+			buffer.getInt(), buffer.getLong(), buffer.get() != 0);
+	}
+
+	private long[] readColumn(Block block, int column) throws IOException {
+		ByteBuffer bytes = readFully(data, block.columnOffset(column), block.lengths[column]);
+		return ColumnCodec.decode(bytes.array(), block.count);
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+
+	private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, position + buffer.position());
+			if (read < 0) {
+				throw new EOFException();
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	public synchronized long getCount() {
+		return blockedCount + tailResults.size();
+	}
+
+	public synchronized List<BoardStats> statsBySize() throws IOException {
+		// The number of games, win rate and fastest win for each board size, reading only 4 of the 7 columns
+		Map<Long, BoardStats> stats = new HashMap<>();
+		for (Block block : blocks) {
+			long[] rows = readColumn(block, ROWS);
+			long[] columns = readColumn(block, COLUMNS);
+			long[] won = readColumn(block, WON);
+			// Durations only matter for the fastest win, so don't read them for a block without any
+			long[] durations = block.wins > 0 ? readColumn(block, DURATION) : null;
+			for (int i = 0; i < block.count; i++) {
+				statsOf(stats, (int) rows[i], (int) columns[i]).add(won[i] != 0, durations == null ? 0 : durations[i]);
+			}
+		}
+		for (GameResult result : tailResults) {
+			statsOf(stats, result.getRowCount(), result.getColumnCount()).add(result.isWon(), result.getDurationMillis());
+		}
+
+		List<BoardStats> sorted = new ArrayList<>(stats.values());
+		sorted.sort(Comparator.comparingInt(BoardStats::getRowCount).thenComparingInt(BoardStats::getColumnCount));
+		return sorted;
+	}
+
+	private static BoardStats statsOf(Map<Long, BoardStats> stats, int rows, int columns) {
+		return stats.computeIfAbsent(((long) rows << 32) | (columns & 0xFFFFFFFFL), key -> new BoardStats(rows, columns));
+	}
+
+	public synchronized List<GameResult> bestTimes(int rows, int columns, int limit) throws IOException {
+		// The fastest wins on one board size, fastest first
+		if (limit <= 0) {
+			return Collections.emptyList();
+		}
+
+		// The slowest of the best so far is at the head, so it's the one replaced by a faster win
+		Comparator<GameResult> byDuration = Comparator.comparingLong(GameResult::getDurationMillis);
+		PriorityQueue<GameResult> best = new PriorityQueue<>(limit + 1, byDuration.reversed());
+
+		for (Block block : blocks) {
+			// Skip blocks which can't contain a win on this size, or can't beat the wins found so far
+			if (block.wins == 0 || rows < block.minRows || rows > block.maxRows || columns < block.minColumns || columns > block.maxColumns) {
+				continue;
+			}
+			if (best.size() == limit && block.bestMillis >= best.peek().getDurationMillis()) {
+				continue;
+			}
+
+			long[] blockRows = readColumn(block, ROWS);
+			long[] blockColumns = readColumn(block, COLUMNS);
+			long[] won = readColumn(block, WON);
+			long[] durations = readColumn(block, DURATION);
+			// The other columns are only read once the block turns out to have a game worth returning
+			long[] mines = null;
+			long[] seeds = null;
+			long[] moves = null;
+			for (int i = 0; i < block.count; i++) {
+				if (won[i] == 0 || blockRows[i] != rows || blockColumns[i] != columns) {
+					continue;
+				}
+				if (best.size() == limit && durations[i] >= best.peek().getDurationMillis()) {
+					continue;
+				}
+				if (mines == null) {
+					mines = readColumn(block, MINES);
+					seeds = readColumn(block, SEED);
+					moves = readColumn(block, MOVES);
+				}
+				offer(best, limit, new GameResult(rows, columns, (int) mines[i], seeds[i], (int) moves[i], durations[i], true));
+			}
+		}
+		for (GameResult result : tailResults) {
+			if (result.isWon() && result.getRowCount() == rows && result.getColumnCount() == columns) {
+				offer(best, limit, result);
+			}
+		}
+
+		List<GameResult> sorted = new ArrayList<>(best);
+		sorted.sort(byDuration);
+		return sorted;
+	}
+
+	private static void offer(PriorityQueue<GameResult> best, int limit, GameResult result) {
+		if (best.size() < limit) {
+			best.add(result);
+		} else if (result.getDurationMillis() < best.peek().getDurationMillis()) {
+			best.poll();
+			best.add(result);
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		// The tail is already on disk, so there's nothing to flush
+		try {
+			data.close();
+		} finally {
+			try {
+				index.close();
+			} finally {
+				tail.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,320 @@
+package minesweeper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import minesweeper.Events.CellMarked;
+import minesweeper.Events.CellRevealed;
+import minesweeper.Events.GameLost;
+import minesweeper.Events.GameWon;
+import minesweeper.Events.MinefieldEvent;
+import minesweeper.Events.MinefieldListener;
+
+class SpectatorBroadcaster implements MinefieldListener, Closeable {
+	/* Lets any number of spectators watch a live game over local TCP connections
+	   Every change to the Minefield is encoded exactly once, on the game thread, into an immutable frame,
+	   and that one frame is shared by every spectator. A single I/O thread does all of the socket writes,
+	   so a slow spectator can never block the game.
+
+	   Frame layout (big-endian), see SpectatorView for the decoder:
+	     int    length of the rest of the frame
+	     byte   'K' for a keyframe, 'D' for a delta
+	     long   sequence number
+	     keyframe: the whole board, as encoded by BoardCodec.encode
+	     delta:    the tiles that changed, as encoded by BoardCodec.encodeRanges */
+	static final byte KEYFRAME = 'K';
+	static final byte DELTA = 'D';
+	private static final int HEADER_SIZE = 4 + 1 + 8;
+
+	private final int keyframeInterval;
+	private final int queueCapacity;
+
+	private final ServerSocketChannel server;
+	private final Selector selector;
+	private final Thread ioThread;
+	private volatile boolean closed = false;
+
+	private Minefield minefield;
+	private long sequence = 0;
+	private int deltasSinceKeyframe = 0;
+	// The ranges of tiles changed by the events being encoded, kept between deltas so it only has to grow once
+	private long[] deltaRanges = new long[16];
+
+	/* The latest keyframe and every delta since it, i.e. everything a spectator needs to catch up
+	   New spectators start with this, and so does a spectator whose queue overflows */
+	private final ArrayList<ByteBuffer> catchUp = new ArrayList<>();
+
+	// Guards catchUp and subscribers, which are shared between the game thread and the I/O thread
+	private final Object lock = new Object();
+	private final ArrayList<Subscriber> subscribers = new ArrayList<>();
+
+	private static class Subscriber {
+		final SocketChannel channel;
+		// Frames waiting to be written, bounded by queueCapacity
+		final ArrayDeque<ByteBuffer> queue = new ArrayDeque<>();
+		// The frame currently being written, a private view onto the shared bytes
+		ByteBuffer writing;
+
+		Subscriber(SocketChannel channel) {
+			this.channel = channel;
+		}
+	}
+
+	public SpectatorBroadcaster(int port, int keyframeInterval, int queueCapacity) throws IOException {
+		if (keyframeInterval <= 0)
+			throw new IllegalArgumentException("Keyframe interval must be 1 or more");
+		if (queueCapacity <= keyframeInterval)
+			throw new IllegalArgumentException("Queue capacity must be larger than the keyframe interval, so a catch-up always fits");
+
+		this.keyframeInterval = keyframeInterval;
+		this.queueCapacity = queueCapacity;
+
+		// Only listen locally, spectators are expected to be on the same machine (or behind a proxy)
+		server = ServerSocketChannel.open();
+		server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+		server.configureBlocking(false);
+		selector = Selector.open();
+		server.register(selector, SelectionKey.OP_ACCEPT);
+
+		ioThread = new Thread(this::runIO, "minesweeper-spectators");
+		ioThread.setDaemon(true);
+		ioThread.start();
+	}
+
+	public int getPort() {
+		return server.socket().getLocalPort();
+	}
+
+	public int getSubscriberCount() {
+		synchronized (lock) {
+			return subscribers.size();
+		}
+	}
+
+	public void attach(Minefield minefield) {
+		// Start broadcasting a (new) game, beginning with a keyframe of its current state
+		// Refused here rather than failing to encode the first delta, which would be thrown out of the game's step
+		if (!minefield.getTopology().isRectangle())
+			throw new IllegalArgumentException("Only the classic rectangular grid can be broadcast");
+		if (this.minefield != null) {
+			this.minefield.removeListener(this);
+		}
+		this.minefield = minefield;
+		minefield.addListener(this);
+		publish(encodeKeyframe(false), true);
+	}
+
+	public void detach() {
+		if (minefield != null) {
+			minefield.removeListener(this);
+			minefield = null;
+		}
+	}
+
+	@Override
+	public void onEvents(List<MinefieldEvent> events) {
+		// Runs on the game thread, at the end of every Minefield operation
+		boolean gameOver = false;
+		for (MinefieldEvent event : events) {
+			if (event instanceof GameWon || event instanceof GameLost) {
+				gameOver = true;
+			}
+		}
+
+		if (gameOver) {
+			// The game is over, so show everyone where the mines were
+			publish(encodeKeyframe(true), true);
+		} else if (deltasSinceKeyframe + 1 >= keyframeInterval) {
+			publish(encodeKeyframe(false), true);
+		} else {
+			publish(encodeDelta(events), false);
+		}
+	}
+
+	private ByteBuffer encodeKeyframe(boolean forceReveal) {
+		// The same compact encoding as a stored board, so a keyframe costs a few nibbles per run of hidden or empty tiles
+		return frame(KEYFRAME, BoardCodec.encode(minefield, forceReveal));
+	}
+
+	private ByteBuffer encodeDelta(List<MinefieldEvent> events) {
+		// Gather every tile the events changed into ranges, then encode the tiles' symbols as they are now
+		int rangeCount = 0;
+		for (MinefieldEvent event : events) {
+			if (event instanceof CellRevealed) {
+				CellRevealed revealed = (CellRevealed) event;
+				for (int i = 0; i < revealed.getRangeCount(); i++) {
+					rangeCount = addRange(rangeCount, revealed.getRangeStart(i), revealed.getRangeEnd(i));
+				}
+			} else if (event instanceof CellMarked) {
+				CellMarked marked = (CellMarked) event;
+				long coord = minefield.toCoordinate(marked.getRow(), marked.getColumn());
+				rangeCount = addRange(rangeCount, coord, coord + 1);
+			}
+		}
+		return frame(DELTA, BoardCodec.encodeRanges(minefield, deltaRanges, rangeCount));
+	}
+
+	private int addRange(int rangeCount, long start, long end) {
+		if (2 * rangeCount == deltaRanges.length) {
+			deltaRanges = Arrays.copyOf(deltaRanges, deltaRanges.length * 2);
+		}
+		deltaRanges[2 * rangeCount] = start;
+		deltaRanges[2 * rangeCount + 1] = end;
+		return rangeCount + 1;
+	}
+
+	private ByteBuffer frame(byte type, byte[] board) {
+		if ((long) HEADER_SIZE + board.length > Integer.MAX_VALUE)
+			throw new IllegalStateException("Minefield is too big for a frame");
+
+		ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + board.length);
+		frame.putInt(HEADER_SIZE - 4 + board.length);
+		frame.put(type);
+		frame.putLong(sequence++);
+		frame.put(board);
+		frame.flip();
+		// Read-only, as the same frame is shared by every spectator
+		return frame.asReadOnlyBuffer();
+	}
+
+	private void publish(ByteBuffer frame, boolean keyframe) {
+		synchronized (lock) {
+			if (keyframe) {
+				catchUp.clear();
+				deltasSinceKeyframe = 0;
+			} else {
+				deltasSinceKeyframe++;
+			}
+			catchUp.add(frame);
+
+			for (Subscriber subscriber : subscribers) {
+				if (subscriber.queue.size() < queueCapacity) {
+					subscriber.queue.add(frame);
+				} else {
+					/* This spectator has fallen too far behind, so rather than queueing more frames
+					   (or waiting for it), drop its backlog and send it the latest keyframe and deltas instead */
+					subscriber.queue.clear();
+					subscriber.queue.addAll(catchUp);
+				}
+			}
+		}
+		// Let the I/O thread know there's something to write
+		selector.wakeup();
+	}
+
+	private void runIO() {
+		try {
+			while (!closed) {
+				selector.select();
+				if (closed) {
+					break;
+				}
+
+				for (SelectionKey key : selector.selectedKeys()) {
+					if (!key.isValid()) {
+						continue;
+					}
+					if (key.isAcceptable()) {
+						accept();
+					} else if (key.isWritable()) {
+						write((Subscriber) key.attachment(), key);
+					}
+				}
+				selector.selectedKeys().clear();
+
+				// Only ask to hear about writability for spectators with something to write
+				synchronized (lock) {
+					for (Subscriber subscriber : subscribers) {
+						SelectionKey key = subscriber.channel.keyFor(selector);
+						if (key != null && key.isValid()) {
+							boolean pending = subscriber.writing != null || !subscriber.queue.isEmpty();
+							key.interestOps(pending ? SelectionKey.OP_WRITE : 0);
+						}
+					}
+				}
+			}
+		} catch (IOException e) {
+			if (!closed) {
+				System.err.println("Spectator broadcast stopped: " + e);
+			}
+		}
+	}
+
+	private void accept() throws IOException {
+		SocketChannel channel = server.accept();
+		if (channel == null) {
+			return;
+		}
+		channel.configureBlocking(false);
+		Subscriber subscriber = new Subscriber(channel);
+		channel.register(selector, 0, subscriber);
+
+		synchronized (lock) {
+			// Bring the new spectator up to date, then keep it there
+			subscriber.queue.addAll(catchUp);
+			subscribers.add(subscriber);
+		}
+	}
+
+	private void write(Subscriber subscriber, SelectionKey key) {
+		try {
+			while (true) {
+				if (subscriber.writing == null || !subscriber.writing.hasRemaining()) {
+					synchronized (lock) {
+						ByteBuffer next = subscriber.queue.poll();
+						// duplicate() gives this spectator its own position over the shared, read-only bytes
+						subscriber.writing = next == null ? null : next.duplicate();
+					}
+					if (subscriber.writing == null) {
+						return;
+					}
+				}
+				subscriber.channel.write(subscriber.writing);
+				if (subscriber.writing.hasRemaining()) {
+					// The socket's buffer is full, carry on when it's writable again
+					return;
+				}
+			}
+		} catch (IOException e) {
+			// The spectator has gone away
+			key.cancel();
+			synchronized (lock) {
+				subscribers.remove(subscriber);
+			}
+			try {
+				subscriber.channel.close();
+			} catch (IOException ignored) {
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		detach();
+		closed = true;
+		selector.wakeup();
+		try {
+			ioThread.join(1000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		synchronized (lock) {
+			for (Subscriber subscriber : subscribers) {
+				subscriber.channel.close();
+			}
+			subscribers.clear();
+		}
+		selector.close();
+		server.close();
+	}
+}
@@ -0,0 +1,83 @@
+package minesweeper;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+class SpectatorView {
+	/* A spectator's copy of the board, rebuilt from the frames sent by SpectatorBroadcaster
+	   Deltas are only applied on top of a keyframe, so a spectator which joins or catches up part way through a game
+	   ignores everything until its first keyframe */
+	private DisplayBoard board;
+	private long sequence = -1;
+
+	public int getRowCount() {
+		return board == null ? 0 : board.getRowCount();
+	}
+
+	public int getColumnCount() {
+		return board == null ? 0 : board.getColumnCount();
+	}
+
+	public long getSequence() {
+		return sequence;
+	}
+
+	public boolean hasKeyframe() {
+		return board != null;
+	}
+
+	public char getTile(int row, int column) {
+		return board.getTile(row, column);
+	}
+
+	public void readFrame(InputStream in) throws IOException {
+		// Read and apply one frame, blocking until all of it has arrived
+		DataInputStream data = new DataInputStream(in);
+		int length = data.readInt();
+		byte[] frame = new byte[length];
+		data.readFully(frame);
+		apply(frame);
+	}
+
+	void apply(byte[] frame) throws IOException {
+		DataInputStream data = new DataInputStream(new ByteArrayInputStream(frame));
+		byte type = data.readByte();
+		long frameSequence = data.readLong();
+		// The rest of the frame is a board or some of its tiles, encoded by BoardCodec
+		byte[] encoded = Arrays.copyOfRange(frame, 1 + 8, frame.length);
+
+		try {
+			if (type == SpectatorBroadcaster.KEYFRAME) {
+				board = BoardCodec.decode(encoded);
+			} else if (type == SpectatorBroadcaster.DELTA) {
+				if (board == null || !BoardCodec.decodeRanges(encoded, board)) {
+					// Nothing to apply the delta to yet
+					return;
+				}
+			} else {
+				throw new IOException("Unknown frame type: " + type);
+			}
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Corrupt frame", e);
+		}
+		sequence = frameSequence;
+	}
+
+	@Override
+	public String toString() {
+		// Plain rows of tiles, without Minefield's coordinate headers
+		StringBuilder builder = new StringBuilder();
+		for (int row = 0; row < getRowCount(); row++) {
+			if (row > 0) {
+				builder.append('\n');
+			}
+			for (int col = 0; col < getColumnCount(); col++) {
+				builder.append(getTile(row, col));
+			}
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,404 @@
+package minesweeper;
+
+import java.util.Arrays;
+
+abstract class Topology {
+	/* The shape of a Minefield: which tiles neighbour each other, and how the minefield is drawn
+	   Whatever its shape, a minefield keeps its tiles in getRowCount() rows of getColumnCount() tiles, with a cube's
+	   layers stacked one above the other, and numbers them row by row like Minefield.toCoordinate.
+
+	   Minefield stores those rows in a grid with a border around them: a column either side of every row, and a row
+	   above and below every layer, which gridRowOf lays out. The border holds sentinel tiles, which are always revealed
+	   and never mined, except on a torus, whose border holds the tiles from the other side instead. A topology's
+	   neighbours are then just a table of offsets in that grid, the same from every tile, so Minefield's flood fill and
+	   neighbour loops are plain loops over the table, with no clamps and no calls into the topology per tile.
+	   The flood fill reads the 8 neighbours of a rectangle or torus a row at a time instead, see hasGridNeighbours. */
+
+	// The size of each dimension: {rows, columns}, or {layers, rows, columns} for a cube
+	private final int[] sizes;
+	private final int rows;
+	private final int columns;
+
+	// The longest array the JVM will allocate, a little short of Integer.MAX_VALUE
+	private static final int MAX_GRID_SIZE = Integer.MAX_VALUE - 8;
+
+	/* The grid's layout: the rows of each layer are followed by a border row, and the first layer's rows come after
+	   firstGridRow - 1 border rows. A cube has a whole layer of border rows either side, so that its neighbours in
+	   the layers above and below are inside the grid as well. */
+	private final int layers;
+	private final int layerRows;
+	private final int firstGridRow;
+	private final int gridRowCount;
+	// Whether the border holds the tiles from the other side, rather than sentinels
+	final boolean wraps;
+
+	/* The offset to each neighbour in the grid, as pairs of {rows, columns}, in row-major order
+	   Indexed by the parity of the tile's grid row first, as a hexagon's odd rows have different neighbours */
+	final int[][] neighbourOffsets;
+
+	Topology(boolean wraps, int[][] neighbourOffsets, int... sizes) {
+		for (int size : sizes) {
+			if (size <= 0)
+				throw new IllegalArgumentException("Must have 1 or more tiles in every dimension");
+		}
+		// Every dimension but the last is stacked into the minefield's rows
+		long rows = 1;
+		for (int dimension = 0; dimension < sizes.length - 1; dimension++) {
+			rows *= sizes[dimension];
+		}
+		// Leaving room for the border around the tiles
+		long layers = sizes.length == 3 ? sizes[0] : 1;
+		long borderRows = sizes.length == 3 ? 2 * (rows / layers + 1) + layers + 1 : 2;
+		if (rows + borderRows > MAX_GRID_SIZE)
+			throw new IllegalArgumentException("Too many rows for one minefield");
+		if (sizes[sizes.length - 1] + 2L > MAX_GRID_SIZE)
+			throw new IllegalArgumentException("Too many columns for one minefield");
+		if (rows * sizes[sizes.length - 1] <= 1)
+			throw new IllegalArgumentException("Must be more than 1 tile");
+		this.sizes = sizes.clone();
+		this.rows = (int) rows;
+		this.columns = sizes[sizes.length - 1];
+		this.layers = (int) layers;
+		this.layerRows = (int) (rows / layers);
+		this.firstGridRow = sizes.length == 3 ? layerRows + 2 : 1;
+		this.gridRowCount = (int) (rows + borderRows);
+		this.wraps = wraps;
+		this.neighbourOffsets = neighbourOffsets;
+	}
+
+	public static Topology rectangle(int rows, int columns) {
+		// The classic grid, where each tile has up to 8 neighbours
+		return new Rectangle(rows, columns);
+	}
+
+	public static Topology torus(int rows, int columns) {
+		// A grid whose edges wrap around to the opposite side, so every tile has exactly 8 neighbours
+		return new Torus(rows, columns);
+	}
+
+	public static Topology hexagon(int rows, int columns) {
+		// Hexagonal tiles with up to 6 neighbours, where every odd row is shifted half a tile to the right
+		return new Hexagon(rows, columns);
+	}
+
+	public static Topology cube(int layers, int rows, int columns) {
+		// A 3D stack of grids, where each tile has up to 26 neighbours
+		return new Cube(layers, rows, columns);
+	}
+
+	public int getRowCount() {
+		return rows;
+	}
+
+	public int getColumnCount() {
+		return columns;
+	}
+
+	public long getTileCount() {
+		return (long) rows * columns;
+	}
+
+	public int getDimensionCount() {
+		return sizes.length;
+	}
+
+	public int getSize(int dimension) {
+		return sizes[dimension];
+	}
+
+	public long tileAt(int row, int column) {
+		if (sizes.length != 2)
+			throw new IllegalArgumentException("Needs a layer as well as a row and column");
+		checkCoordinate(0, row);
+		checkCoordinate(1, column);
+		return (long) row * columns + column;
+	}
+
+	public long tileAt(int layer, int row, int column) {
+		if (sizes.length != 3)
+			throw new IllegalArgumentException("Only a cube has layers");
+		checkCoordinate(0, layer);
+		checkCoordinate(1, row);
+		checkCoordinate(2, column);
+		return ((long) layer * sizes[1] + row) * columns + column;
+	}
+
+	private void checkCoordinate(int dimension, int coordinate) {
+		if (coordinate < 0 || coordinate >= sizes[dimension])
+			throw new IllegalArgumentException("Coordinate out of range");
+	}
+
+	boolean isRectangle() {
+		// Whether this is the classic grid, which is all Bitboard, BoardCodec, BoardImage and BoardAnalysis understand
+		return this instanceof Rectangle;
+	}
+
+	int getGridRowCount() {
+		return gridRowCount;
+	}
+
+	final int gridRowOf(int row) {
+		// Where a row of the minefield is in the grid, with each layer's border row before the next layer's rows
+		return firstGridRow + row + row / layerRows;
+	}
+
+	final int rowOfGridRow(int gridRow) {
+		// The row of the minefield at a row of the grid, or -1 for a border row of sentinels
+		int offset = gridRow - firstGridRow;
+		if (wraps) {
+			return offset < 0 ? rows - 1 : offset == rows ? 0 : offset;
+		}
+		if (offset < 0 || offset / (layerRows + 1) >= layers || offset % (layerRows + 1) == layerRows) {
+			return -1;
+		}
+		return offset - offset / (layerRows + 1);
+	}
+
+	final int columnOfGridColumn(int gridColumn) {
+		// The column of the minefield at a column of the grid, or -1 for a border column of sentinels
+		int column = gridColumn - 1;
+		if (wraps) {
+			return column < 0 ? columns - 1 : column == columns ? 0 : column;
+		}
+		return column < 0 || column == columns ? -1 : column;
+	}
+
+	MineTile[][] newGrid(MineTile sentinel) {
+		/* New tiles for a minefield, laid out in the grid with their border
+		   Each row is its own array, so the minefield as a whole can hold more than 2^31 tiles, and every border row
+		   of sentinels is the same array. A torus's border instead refers to the tiles from the other side. */
+		MineTile[] borderRow = new MineTile[columns + 2];
+		Arrays.fill(borderRow, sentinel);
+		MineTile[][] grid = new MineTile[gridRowCount][];
+		Arrays.fill(grid, borderRow);
+		for (int row = 0; row < rows; row++) {
+			MineTile[] gridRow = new MineTile[columns + 2];
+			for (int column = 1; column <= columns; column++) {
+				gridRow[column] = new MineTile();
+			}
+			gridRow[0] = wraps ? gridRow[columns] : sentinel;
+			gridRow[columns + 1] = wraps ? gridRow[1] : sentinel;
+			grid[gridRowOf(row)] = gridRow;
+		}
+		if (wraps) {
+			grid[0] = grid[rows];
+			grid[rows + 1] = grid[1];
+		}
+		return grid;
+	}
+
+	int getMaxNeighbours() {
+		return neighbourOffsets[0].length / 2;
+	}
+
+	final boolean hasGridNeighbours() {
+		// Whether every tile's neighbours are the 8 tiles around it, as on the classic grid
+		return neighbourOffsets[0] == GRID_OFFSETS && neighbourOffsets[1] == GRID_OFFSETS;
+	}
+
+	final int neighbours(int row, int column, int[] neighbourRows, int[] neighbourColumns) {
+		/* Put the row and column of each of a tile's neighbours into neighbourRows and neighbourColumns,
+		   which have room for getMaxNeighbours(), and return how many there are
+		   For boards without a border of their own, such as PersistentBoard's: Minefield reads the offsets itself. */
+		int gridRow = gridRowOf(row);
+		int[] offsets = neighbourOffsets[gridRow & 1];
+		int count = 0;
+		for (int offset = 0; offset < offsets.length; offset += 2) {
+			int neighbourRow = rowOfGridRow(gridRow + offsets[offset]);
+			int neighbourColumn = columnOfGridColumn(column + 1 + offsets[offset + 1]);
+			if (neighbourRow >= 0 && neighbourColumn >= 0) {
+				neighbourRows[count] = neighbourRow;
+				neighbourColumns[count] = neighbourColumn;
+				count++;
+			}
+		}
+		return count;
+	}
+
+	interface Tiles {
+		// The tiles a flood fill reveals, by their row and column in the minefield
+		boolean isRevealed(int row, int column);
+
+		// Reveal a tile and return its number of mined neighbours, or -1 if it was revealed already
+		int reveal(int row, int column);
+	}
+
+	final long reveal(LongStack stack, Tiles tiles) {
+		/* Reveal every tile on the stack (as 1D coordinates), flooding out through every tile with no mined neighbours,
+		   and return how many tiles were pushed onto the stack along the way
+		   The same flood fill as Minefield's, for PersistentBoard, whose tiles have no border around them */
+		long pushes = 0;
+		while (!stack.isEmpty()) {
+			long coord = stack.pop();
+			int row = (int) (coord / columns);
+			int column = (int) (coord % columns);
+			// A tile can be pushed again by another neighbour before it's revealed, and only needs revealing once
+			if (tiles.reveal(row, column) != 0) {
+				continue;
+			}
+			int gridRow = gridRowOf(row);
+			int[] offsets = neighbourOffsets[gridRow & 1];
+			for (int offset = 0; offset < offsets.length; offset += 2) {
+				int neighbourRow = rowOfGridRow(gridRow + offsets[offset]);
+				int neighbourColumn = columnOfGridColumn(column + 1 + offsets[offset + 1]);
+				// Don't step off the board, or into an already revealed tile
+				if (neighbourRow >= 0 && neighbourColumn >= 0 && !tiles.isRevealed(neighbourRow, neighbourColumn)) {
+					stack.push((long) neighbourRow * columns + neighbourColumn);
+					pushes++;
+				}
+			}
+		}
+		return pushes;
+	}
+
+	abstract void render(StringBuilder out, MineTile[][] tileRows, boolean forceReveal);
+
+	static void renderGrid(StringBuilder out, MineTile[][] tileRows, int firstRow, int rows, int columns, boolean forceReveal) {
+		/* Draw rows firstRow..(firstRow + rows - 1) of the tiles as a grid, numbered from 0, with a header of column numbers
+		   Each row of tileRows is a row of the grid, with its tiles at 1..columns */
+		Minefield.appendColumnHeader(out, rows, columns);
+		for (int row = 0; row < rows; row++) {
+			Minefield.appendRowLabel(out, row, rows);
+			MineTile[] rowTiles = tileRows[firstRow + row];
+			for (int column = 1; column <= columns; column++) {
+				out.append(rowTiles[column].toChar(forceReveal));
+			}
+			if (row != rows - 1) {
+				// Append a newline to show a new row
+				out.append('\n');
+			}
+		}
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		// Minefields can only be copied between topologies of the same shape and size
+		return other != null && other.getClass() == getClass() && Arrays.equals(((Topology) other).sizes, sizes);
+	}
+
+	@Override
+	public int hashCode() {
+		return getClass().hashCode() * 31 + Arrays.hashCode(sizes);
+	}
+
+	// The 8 tiles around a tile in a grid
+	private static final int[] GRID_OFFSETS = { -1, -1, -1, 0, -1, 1, 0, -1, 0, 1, 1, -1, 1, 0, 1, 1 };
+
+	private static final class Rectangle extends Topology {
+		private final int rows;
+		private final int columns;
+
+		Rectangle(int rows, int columns) {
+			super(false, new int[][] { GRID_OFFSETS, GRID_OFFSETS }, rows, columns);
+			this.rows = rows;
+			this.columns = columns;
+		}
+
+		@Override
+		void render(StringBuilder out, MineTile[][] tileRows, boolean forceReveal) {
+			renderGrid(out, tileRows, 0, rows, columns, forceReveal);
+		}
+	}
+
+	private static final class Torus extends Topology {
+		/* There are no edges, so neighbours wrap around to the other side
+		   At least 3 rows and columns are needed, or a tile would be its own neighbour, or the same neighbour twice */
+		private final int rows;
+		private final int columns;
+
+		Torus(int rows, int columns) {
+			super(true, new int[][] { GRID_OFFSETS, GRID_OFFSETS }, rows, columns);
+			if (rows < 3 || columns < 3)
+				throw new IllegalArgumentException("A torus needs at least 3 rows and 3 columns");
+			this.rows = rows;
+			this.columns = columns;
+		}
+
+		@Override
+		void render(StringBuilder out, MineTile[][] tileRows, boolean forceReveal) {
+			renderGrid(out, tileRows, 0, rows, columns, forceReveal);
+		}
+	}
+
+	private static final class Hexagon extends Topology {
+		/* Either side in the same row, and two in each of the rows above and below, which are to the right on an odd row
+		   The minefield's row 0 is the grid's row 1, so the minefield's odd rows are the grid's even rows */
+		private static final int[][] OFFSETS = {
+			{ -1, 0, -1, 1, 0, -1, 0, 1, 1, 0, 1, 1 },
+			{ -1, -1, -1, 0, 0, -1, 0, 1, 1, -1, 1, 0 }
+		};
+
+		private final int rows;
+		private final int columns;
+
+		Hexagon(int rows, int columns) {
+			super(false, OFFSETS, rows, columns);
+			this.rows = rows;
+			this.columns = columns;
+		}
+
+		@Override
+		void render(StringBuilder out, MineTile[][] tileRows, boolean forceReveal) {
+			// Tiles are spaced out, and odd rows are shifted along by half a tile
+			for (int row = 0; row < rows; row++) {
+				Minefield.appendRowLabel(out, row, rows);
+				if ((row & 1) != 0) {
+					out.append(' ');
+				}
+				MineTile[] rowTiles = tileRows[row];
+				for (int column = 1; column <= columns; column++) {
+					if (column > 1) {
+						out.append(' ');
+					}
+					out.append(rowTiles[column].toChar(forceReveal));
+				}
+				if (row != rows - 1) {
+					out.append('\n');
+				}
+			}
+		}
+	}
+
+	private static final class Cube extends Topology {
+		// Layer l of the cube is rows l * layerRows..(l + 1) * layerRows - 1 of the minefield
+		private final int layers;
+		private final int layerRows;
+		private final int columns;
+
+		Cube(int layers, int rows, int columns) {
+			super(false, offsets(rows), layers, rows, columns);
+			this.layers = layers;
+			this.layerRows = rows;
+			this.columns = columns;
+		}
+
+		private static int[][] offsets(int layerRows) {
+			// The 26 tiles around a tile, where the same row of the next layer is layerRows + 1 rows down the grid
+			int[] offsets = new int[26 * 2];
+			int count = 0;
+			for (int layer = -1; layer <= 1; layer++) {
+				for (int row = -1; row <= 1; row++) {
+					for (int column = -1; column <= 1; column++) {
+						if (layer != 0 || row != 0 || column != 0) {
+							offsets[count++] = layer * (layerRows + 1) + row;
+							offsets[count++] = column;
+						}
+					}
+				}
+			}
+			return new int[][] { offsets, offsets };
+		}
+
+		@Override
+		void render(StringBuilder out, MineTile[][] tileRows, boolean forceReveal) {
+			// Each layer is drawn as its own grid
+			for (int layer = 0; layer < layers; layer++) {
+				if (layer > 0) {
+					out.append("\n\n");
+				}
+				out.append("Layer ").append(layer).append('\n');
+				renderGrid(out, tileRows, layer * layerRows, layerRows, columns, forceReveal);
+			}
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package minesweeper;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+public class BitboardBudgetTest {
+	/* Performance budgets for Bitboard, see Budgets for how they're measured
+	   Every measurement is taken from the same board, with the revealed tiles cleared between rounds */
+	@BeforeClass
+	public static void setUpClass() {
+		Budgets.setUp();
+	}
+
+	private static Bitboard newBitboard(int rows, int columns, int mines, long seed, BoardKernels kernels) {
+		Minefield minefield = new Minefield(rows, columns, mines);
+		Random random = new Random(seed);
+		while (minefield.getMineCount() < minefield.getMaxMines()) {
+			int row = random.nextInt(rows);
+			int col = random.nextInt(columns);
+			if (row != 0 || col != 0) {
+				minefield.mineTile(row, col);
+			}
+		}
+		return Bitboard.of(minefield, kernels);
+	}
+
+	private static void clearRevealed(Bitboard bitboard) {
+		for (long[] row : bitboard.revealed) {
+			Arrays.fill(row, 0);
+		}
+	}
+
+	private static BoardKernels[] kernels() {
+		// Every kernel this JVM can run
+		return BoardKernels.VECTOR == null ? new BoardKernels[] { BoardKernels.WORD, BoardKernels.SCALAR }
+				: new BoardKernels[] { BoardKernels.VECTOR, BoardKernels.WORD, BoardKernels.SCALAR };
+	}
+
+	private static int warmUpRounds(BoardKernels kernels) {
+		/* Until C2 compiles them, every vector the vector kernels use is an object on the heap,
+		   and on these boards that takes a few hundred rounds rather than the WARM_UP_ROUNDS the others need */
+		return kernels == BoardKernels.VECTOR ? 25 * Budgets.WARM_UP_ROUNDS : Budgets.WARM_UP_ROUNDS;
+	}
+
+	private static long runKernels(BoardKernels kernels, Bitboard bitboard) {
+		// Everything Bitboard asks of its kernels, with mines and marked the same so the win check reads every word
+		long result = kernels.neighbourPlanes(bitboard.mines, bitboard.getColumnCount()).length;
+		result += kernels.countMismatches(bitboard.mines, bitboard.marked);
+		result += kernels.noMismatches(bitboard.mines, bitboard.mines) ? 1 : 0;
+		result += kernels.countBits(bitboard.mines);
+		return result;
+	}
+
+	@Test
+	public void testKernelsAllocateOnlyThePlanes() {
+		// The win checks and counts allocate nothing, which also catches vectors that the JIT failed to keep in registers
+		Bitboard bitboard = newBitboard(1000, 1000, 1000 * 1000 / 5, 4, BoardKernels.WORD);
+		int words = (1000 + 63) >>> 6;
+		for (BoardKernels kernels : kernels()) {
+			long countBytes = 0;
+			long planeBytes = 0;
+			for (int round = 0; round < warmUpRounds(kernels); round++) {
+				long before = Budgets.allocatedBytes();
+				kernels.countMismatches(bitboard.mines, bitboard.marked);
+				kernels.noMismatches(bitboard.mines, bitboard.mines);
+				kernels.countBits(bitboard.mines);
+				countBytes = Budgets.allocatedSince(before);
+				before = Budgets.allocatedBytes();
+				kernels.neighbourPlanes(bitboard.mines, bitboard.getColumnCount());
+				planeBytes = Budgets.allocatedSince(before);
+			}
+			String name = kernels.getClass().getSimpleName();
+			assertEquals("Bytes allocated by the " + name + " counts", 0, countBytes);
+			// 4 planes of 1000 rows, each with a header and its words
+			assertTrue(planeBytes + " bytes allocated by the " + name + " planes", planeBytes <= 4 * 1000 * (32 + words * 8) + 1024);
+		}
+	}
+
+	@Test
+	public void testKernelTimePerMillionTiles() {
+		/* Every kernel this JVM can run is timed and reported, as how they compare depends on the CPU
+		   The budgets only catch kernels that are badly wrong for the machine, with margins wide enough not to fail on
+		   a noisy run: the chosen kernels several times slower than the word kernels, or the word kernels not even twice
+		   as fast as the scalar ones, which they usually beat by 10x or more. */
+		Bitboard bitboard = newBitboard(1000, 1000, 1000 * 1000 / 5, 4, BoardKernels.WORD);
+		BoardKernels[] kernels = kernels();
+		long[] bestNanos = new long[kernels.length];
+		long[] results = new long[kernels.length];
+		for (int i = 0; i < kernels.length; i++) {
+			bestNanos[i] = Long.MAX_VALUE;
+			for (int round = 0; round < warmUpRounds(kernels[i]); round++) {
+				long start = System.nanoTime();
+				results[i] = runKernels(kernels[i], bitboard);
+				bestNanos[i] = Math.min(bestNanos[i], System.nanoTime() - start);
+			}
+			assertEquals(results[0], results[i]);
+			Budgets.report(kernels[i].getClass().getSimpleName() + " per million tiles", bestNanos[i]);
+		}
+		long selectedNanos = bestNanos[Arrays.asList(kernels).indexOf(BoardKernels.get())];
+		long wordNanos = bestNanos[Arrays.asList(kernels).indexOf(BoardKernels.WORD)];
+		long scalarNanos = bestNanos[kernels.length - 1];
+		assumeTrue(Budgets.TIMING);
+		assertTrue("The selected kernels took " + selectedNanos / 1000 + "us per million tiles", selectedNanos <= 5000000L);
+		assertTrue("The selected kernels took " + selectedNanos / 1000 + "us, the word kernels " + wordNanos / 1000 + "us",
+				selectedNanos <= wordNanos * 3);
+		assertTrue("The word kernels took " + wordNanos / 1000 + "us, the scalar kernels " + scalarNanos / 1000 + "us",
+				wordNanos * 2 <= scalarNanos);
+	}
+
+	@Test
+	public void testStepAllocatesNothing() {
+		// The frontier buffers are allocated by the first step, and reused by every step after it
+		Bitboard bitboard = newBitboard(300, 300, 300 * 300 / 50, 3, BoardKernels.WORD);
+		long bytes = 0;
+		for (int round = 0; round < Budgets.WARM_UP_ROUNDS; round++) {
+			clearRevealed(bitboard);
+			long before = Budgets.allocatedBytes();
+			assertTrue(bitboard.step(0, 0));
+			bytes = Budgets.allocatedSince(before);
+		}
+		assertTrue(bitboard.countRevealed() > 300 * 300 / 2);
+		assertEquals("Bytes allocated revealing " + bitboard.countRevealed() + " tiles", 0, bytes);
+	}
+}
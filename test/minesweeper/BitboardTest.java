@@ -0,0 +1,131 @@
+package minesweeper;
+
+import java.util.Random;
+import org.junit.Test;
+import static minesweeper.BoardAssert.assertSameState;
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+public class BitboardTest {
+	@Test
+	public void testNeighbourCounts() {
+		// Test the bit-sliced neighbour counts across word boundaries, including a fully mined neighbourhood
+		Minefield minefield = new Minefield(130, 130, 130 * 130 - 1);
+		minefield.populate();
+		assertSameState(minefield, Bitboard.of(minefield));
+		
+		Minefield sparse = new Minefield(70, 70, 400);
+		sparse.populate();
+		assertSameState(sparse, Bitboard.of(sparse));
+	}
+	
+	@Test
+	public void testStepMatchesMinefield() {
+		// Step on random unmined tiles of random boards, and check the Bitboard reveals exactly the same tiles
+		Random random = new Random(1234);
+		for (int board = 0; board < 20; board++) {
+			int size = 5 + random.nextInt(150);
+			Minefield minefield = new Minefield(size, size, size * size / (4 + random.nextInt(20)));
+			minefield.populate();
+			Bitboard bitboard = Bitboard.of(minefield);
+			
+			for (int move = 0; move < 10; move++) {
+				int row = random.nextInt(size);
+				int col = random.nextInt(size);
+				if (!minefield.getTile(row, col).isMined()) {
+					assertTrue(minefield.step(row, col));
+					assertTrue(bitboard.step(row, col));
+				}
+			}
+			assertSameState(minefield, bitboard);
+		}
+	}
+	
+	@Test
+	public void testStepOnMine() {
+		Minefield minefield = new Minefield(10, 10, 1);
+		minefield.mineTile(3, 3);
+		Bitboard bitboard = Bitboard.of(minefield);
+		
+		assertFalse(bitboard.step(3, 3));
+		assertFalse(bitboard.isRevealed(3, 3));
+	}
+	
+	@Test
+	public void testAreAllMinesRevealed() {
+		Minefield minefield = new Minefield(10, 100, 2);
+		minefield.mineTile(5, 70);
+		minefield.mineTile(9, 99);
+		Bitboard bitboard = Bitboard.of(minefield);
+		
+		assertFalse(bitboard.areAllMinesRevealed());
+		assertEquals(2, bitboard.countMismatches());
+		
+		bitboard.markTile(5, 70);
+		bitboard.markTile(9, 99);
+		assertTrue(bitboard.areAllMinesRevealed());
+		
+		// An incorrectly marked tile loses the win again
+		bitboard.markTile(0, 63);
+		assertFalse(bitboard.areAllMinesRevealed());
+		assertEquals(1, bitboard.countMismatches());
+	}
+	
+	private static void assertSameResults(BoardKernels expected, BoardKernels actual, long seed, int widths) {
+		Random random = new Random(seed);
+		for (int board = 0; board < 10; board++) {
+			int rows = 1 + random.nextInt(100);
+			int columns = 2 + random.nextInt(widths);
+			Bitboard expectedBoard = new Bitboard(rows, columns, expected);
+			Bitboard actualBoard = new Bitboard(rows, columns, actual);
+			
+			for (int mine = rows * columns / (2 + random.nextInt(10)); mine > 0; mine--) {
+				int row = random.nextInt(rows);
+				int col = random.nextInt(columns);
+				expectedBoard.mineTile(row, col);
+				actualBoard.mineTile(row, col);
+			}
+			for (int mark = 0; mark < 20; mark++) {
+				int row = random.nextInt(rows);
+				int col = random.nextInt(columns);
+				expectedBoard.markTile(row, col);
+				actualBoard.markTile(row, col);
+			}
+			
+			for (int row = 0; row < rows; row++) {
+				for (int col = 0; col < columns; col++) {
+					assertEquals(expectedBoard.getMineNeighbours(row, col), actualBoard.getMineNeighbours(row, col));
+				}
+			}
+			assertEquals(expectedBoard.countMismatches(), actualBoard.countMismatches());
+			assertEquals(expectedBoard.areAllMinesRevealed(), actualBoard.areAllMinesRevealed());
+			assertEquals(expectedBoard.countRevealed(), actualBoard.countRevealed());
+		}
+	}
+	
+	@Test
+	public void testScalarKernelsMatchWordKernels() {
+		// The scalar fallback must give exactly the same results as the word-parallel kernels
+		assertSameResults(BoardKernels.WORD, BoardKernels.SCALAR, 5678, 200);
+	}
+	
+	@Test
+	public void testVectorKernelsMatchWordKernels() {
+		// And so must the vector kernels, on rows long enough to fill several vectors
+		assumeTrue(BoardKernels.VECTOR != null);
+		assertSameResults(BoardKernels.WORD, BoardKernels.VECTOR, 8765, 2000);
+	}
+	
+	@Test
+	public void testDefaultKernels() {
+		// The fastest kernels this JVM can run, unless told otherwise
+		assertSame(BoardKernels.VECTOR != null ? BoardKernels.VECTOR : BoardKernels.WORD, BoardKernels.select(null));
+		assertSame(BoardKernels.select(System.getProperty("minesweeper.kernels")), BoardKernels.get());
+		assertSame(BoardKernels.SCALAR, BoardKernels.select("scalar"));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownKernels() {
+		BoardKernels.select("avx512");
+	}
+}
@@ -0,0 +1,123 @@
+package minesweeper;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BoardAnalysisTest {
+	private static boolean isEmpty(Minefield minefield, int row, int col) {
+		return !minefield.getTile(row, col).isMined() && minefield.getTile(row, col).getMineNeighbours() == 0;
+	}
+
+	private static boolean isIsland(Minefield minefield, int row, int col) {
+		if (minefield.getTile(row, col).isMined() || isEmpty(minefield, row, col)) {
+			return false;
+		}
+		for (int r = Math.max(row - 1, 0); r <= Math.min(row + 1, minefield.getRowCount() - 1); r++) {
+			for (int c = Math.max(col - 1, 0); c <= Math.min(col + 1, minefield.getColumnCount() - 1); c++) {
+				if (isEmpty(minefield, r, c)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static List<Long> floodFillSizes(Minefield minefield, boolean openings) {
+		// The obvious way: flood fill every component from its first tile
+		int rows = minefield.getRowCount();
+		int columns = minefield.getColumnCount();
+		boolean[][] seen = new boolean[rows][columns];
+		List<Long> sizes = new ArrayList<>();
+		for (int row = 0; row < rows; row++) {
+			for (int col = 0; col < columns; col++) {
+				boolean member = openings ? isEmpty(minefield, row, col) : isIsland(minefield, row, col);
+				if (!member || seen[row][col]) {
+					continue;
+				}
+				long size = 0;
+				ArrayDeque<int[]> queue = new ArrayDeque<>();
+				queue.add(new int[] { row, col });
+				seen[row][col] = true;
+				while (!queue.isEmpty()) {
+					int[] tile = queue.poll();
+					size++;
+					for (int r = Math.max(tile[0] - 1, 0); r <= Math.min(tile[0] + 1, rows - 1); r++) {
+						for (int c = Math.max(tile[1] - 1, 0); c <= Math.min(tile[1] + 1, columns - 1); c++) {
+							boolean neighbour = openings ? isEmpty(minefield, r, c) : isIsland(minefield, r, c);
+							if (neighbour && !seen[r][c]) {
+								seen[r][c] = true;
+								queue.add(new int[] { r, c });
+							}
+						}
+					}
+				}
+				sizes.add(size);
+			}
+		}
+		sizes.sort(Collections.reverseOrder());
+		return sizes;
+	}
+
+	private static List<Long> toList(long[] values) {
+		List<Long> list = new ArrayList<>();
+		for (long value : values) {
+			list.add(value);
+		}
+		return list;
+	}
+
+	@Test
+	public void testMatchesFloodFill() {
+		// Bands of every height from a single row up should give the same answer as flood filling the whole board
+		Random random = new Random(1234);
+		for (int board = 0; board < 30; board++) {
+			int rows = 1 + random.nextInt(60);
+			int columns = 2 + random.nextInt(60);
+			Minefield minefield = new Minefield(rows, columns, random.nextInt(rows * columns / 4 + 1));
+			minefield.populate(new BoardId(rows, columns, minefield.getMaxMines(), random.nextLong()));
+
+			List<Long> openings = floodFillSizes(minefield, true);
+			List<Long> islands = floodFillSizes(minefield, false);
+			long islandTiles = 0;
+			for (long size : islands) {
+				islandTiles += size;
+			}
+			for (int bandRows : new int[] { 1, 2, 3, 7, BoardAnalysis.BAND_ROWS }) {
+				BoardAnalysis analysis = BoardAnalysis.analyse(minefield, bandRows);
+				assertEquals(openings, toList(analysis.getOpeningSizes()));
+				assertEquals(islands, toList(analysis.getIslandSizes()));
+				assertEquals(openings.size() + islandTiles, analysis.getThreeBV());
+			}
+		}
+	}
+
+	@Test
+	public void testSmallBoard() {
+		/* Two mines in the middle column of a 3x5 board:
+		     0 2 * 2 0
+		     0 2 * 2 0
+		     0 1 1 1 0
+		   Each side is an opening of 3 empty tiles, and the 1 under the mines doesn't border either, so it's an island */
+		Minefield minefield = new Minefield(3, 5, 2);
+		minefield.mineTile(0, 2);
+		minefield.mineTile(1, 2);
+		BoardAnalysis analysis = BoardAnalysis.analyse(minefield, 1);
+		assertEquals(2, analysis.getOpeningCount());
+		assertArrayEquals(new long[] { 3, 3 }, analysis.getOpeningSizes());
+		assertArrayEquals(new long[] { 1 }, analysis.getIslandSizes());
+		assertEquals(3, analysis.getThreeBV());
+
+		// A board with no empty tiles at all is all islands, here one island of 3 numbers
+		Minefield crowded = new Minefield(2, 2, 1);
+		crowded.mineTile(1, 1);
+		analysis = BoardAnalysis.analyse(crowded);
+		assertEquals(0, analysis.getOpeningCount());
+		assertArrayEquals(new long[] { 3 }, analysis.getIslandSizes());
+		assertEquals(3, analysis.getThreeBV());
+	}
+}
@@ -0,0 +1,44 @@
+package minesweeper;
+
+import static org.junit.Assert.*;
+
+final class BoardAssert {
+	/* Checks shared by the tests of the other representations of a board, which must always match a Minefield
+	   Bitboard and PersistentBoard have the same accessors without sharing an interface, so each is checked through
+	   method references to them */
+	private interface TileFlag {
+		boolean get(int row, int column);
+	}
+
+	private interface TileCount {
+		int get(int row, int column);
+	}
+
+	private BoardAssert() {
+	}
+
+	static void assertSameState(Minefield minefield, Bitboard bitboard) {
+		assertSameState(minefield, bitboard::isMined, bitboard::isRevealed, bitboard::isMarked, bitboard::getMineNeighbours,
+				bitboard.areAllMinesRevealed());
+	}
+
+	static void assertSameState(Minefield minefield, PersistentBoard board) {
+		assertSameState(minefield, board::isMined, board::isRevealed, board::isMarked, board::getMineNeighbours,
+				board.areAllMinesRevealed());
+	}
+
+	private static void assertSameState(Minefield minefield, TileFlag mined, TileFlag revealed, TileFlag marked,
+			TileCount mineNeighbours, boolean won) {
+		// Check every tile against the Minefield it should match
+		for (int row = 0; row < minefield.getRowCount(); row++) {
+			for (int col = 0; col < minefield.getColumnCount(); col++) {
+				MineTile tile = minefield.getTile(row, col);
+				assertEquals(tile.isMined(), mined.get(row, col));
+				assertEquals(tile.isRevealed(), revealed.get(row, col));
+				assertEquals(tile.isMarked(), marked.get(row, col));
+				assertEquals(tile.getMineNeighbours(), mineNeighbours.get(row, col));
+			}
+		}
+		assertEquals(minefield.areAllMinesRevealed(), won);
+	}
+}
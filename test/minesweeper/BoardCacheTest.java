@@ -0,0 +1,67 @@
+package minesweeper;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BoardCacheTest {
+	@Test
+	public void testBoardIdRegenerates() {
+		// The same ID gives the same board, both ways of placing mines, forever (unless GENERATOR_VERSION changes)
+		BoardId sparse = BoardId.parse("1.5x8.10.minesweeper");
+		assertEquals("  01234567\n0  111    \n1 12*33321\n2 1*4****1\n3 223**521\n4 *113*2  ", sparse.generate().toString(true));
+		BoardId dense = BoardId.parse("1.5x8.30.minesweeper");
+		assertEquals("  01234567\n0 3*5****3\n1 ********\n2 ****6553\n3 ****6**2\n4 *******2", dense.generate().toString(true));
+
+		BoardId id = BoardId.random(40, 70, 500);
+		assertEquals(id, BoardId.parse(id.toString()));
+		assertEquals(id.generate().toString(true), BoardId.parse(id.toString()).generate().toString(true));
+		assertEquals(id, id.generate().getBoardId());
+
+		// An ID with an opening keeps the opening and its neighbours clear, here leaving exactly room for the 30 mines
+		BoardId opened = BoardId.parse("1.5x8.30.minesweeper.2x3");
+		assertEquals(opened, BoardId.parse(opened.toString()));
+		assertEquals(dense.withOpening(2, 3), opened);
+		assertEquals("  01234567\n0 3*******\n1 **535***\n2 **3 3***\n3 **535***\n4 ********", opened.generate().toString(true));
+	}
+
+	@Test
+	public void testCopiesAreIndependent() {
+		BoardCache cache = new BoardCache(4);
+		BoardId id = new BoardId(20, 20, 40, 42);
+		Minefield first = cache.get(id);
+		first.step(0, 0);
+		first.markTile(19, 19);
+
+		// Playing one copy doesn't change the next
+		Minefield second = cache.get(id);
+		assertEquals(id.generate().toString(), second.toString());
+		assertEquals(id.generate().toString(true), second.toString(true));
+		assertEquals(40, second.getMineCount());
+		assertFalse(second.areAllMinesRevealed());
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getHits());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEvicted() {
+		BoardCache cache = new BoardCache(2);
+		BoardId a = new BoardId(5, 5, 5, 1);
+		BoardId b = new BoardId(5, 5, 5, 2);
+		BoardId c = new BoardId(5, 5, 5, 3);
+		cache.get(a);
+		cache.get(b);
+		cache.get(a);
+		// b is now the least recently used, so c replaces it
+		cache.get(c);
+		assertEquals(2, cache.size());
+		cache.get(a);
+		assertEquals(3, cache.getMisses());
+		cache.get(b);
+		assertEquals(4, cache.getMisses());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownVersion() {
+		BoardId.parse("2.5x8.10.minesweeper");
+	}
+}
@@ -0,0 +1,87 @@
+package minesweeper;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BoardCodecTest {
+	private static void play(Minefield minefield, Random random, int moves) {
+		// Make some random moves, stopping before the game is lost
+		for (int move = 0; move < moves; move++) {
+			int row = random.nextInt(minefield.getRowCount());
+			int col = random.nextInt(minefield.getColumnCount());
+			if (minefield.getTile(row, col).isMined()) {
+				minefield.markTile(row, col);
+			} else {
+				minefield.step(row, col);
+			}
+		}
+	}
+
+	@Test
+	public void testRoundTrip() {
+		// A decoded board should render exactly like the Minefield it was encoded from
+		Random random = new Random(2468);
+		for (int board = 0; board < 50; board++) {
+			int rows = 1 + random.nextInt(40);
+			int columns = 2 + random.nextInt(150);
+			Minefield minefield = new Minefield(rows, columns, random.nextInt(rows * columns / 3 + 1));
+			minefield.populate();
+			play(minefield, random, random.nextInt(10));
+
+			assertEquals(minefield.toString(), BoardCodec.decode(BoardCodec.encode(minefield, false)).toString());
+			assertEquals(minefield.toString(true), BoardCodec.decode(BoardCodec.encode(minefield, true)).toString());
+		}
+	}
+
+	@Test
+	public void testRanges() {
+		// Ranges of a board after some moves, applied to the board from before them, give the board after them
+		Random random = new Random(9753);
+		for (int board = 0; board < 20; board++) {
+			int rows = 1 + random.nextInt(30);
+			int columns = 2 + random.nextInt(100);
+			Minefield minefield = new Minefield(rows, columns, random.nextInt(rows * columns / 5 + 1));
+			minefield.populate();
+			DisplayBoard before = BoardCodec.decode(BoardCodec.encode(minefield, false));
+			play(minefield, random, 1 + random.nextInt(10));
+
+			// Split the whole board into ranges of random lengths, which run across rows
+			long[] ranges = new long[2 * rows * columns];
+			int rangeCount = 0;
+			for (long start = 0; start < minefield.getTileCount(); rangeCount++) {
+				ranges[2 * rangeCount] = start;
+				start = Math.min(start + 1 + random.nextInt(2 * columns), minefield.getTileCount());
+				ranges[2 * rangeCount + 1] = start;
+			}
+			assertTrue(BoardCodec.decodeRanges(BoardCodec.encodeRanges(minefield, ranges, rangeCount), before));
+			assertEquals(minefield.toString(), before.toString());
+		}
+
+		// Ranges from a different size of board are left alone
+		Minefield other = new Minefield(3, 4, 1);
+		DisplayBoard board = BoardCodec.decode(BoardCodec.encode(new Minefield(4, 3, 1), false));
+		assertFalse(BoardCodec.decodeRanges(BoardCodec.encodeRanges(other, new long[] { 0, 12 }, 1), board));
+	}
+
+	@Test
+	public void testMidGameCompression() {
+		// A typical board part way through a game should be far smaller than its text
+		Minefield minefield = new Minefield(200, 200, 200 * 200 / 8);
+		minefield.populate();
+		play(minefield, new Random(1357), 40);
+
+		byte[] encoded = BoardCodec.encode(minefield, false);
+		int textLength = minefield.toString().length();
+		assertTrue("Only " + textLength / encoded.length + "x smaller", encoded.length * 10 <= textLength);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTruncated() {
+		Minefield minefield = new Minefield(10, 10, 10);
+		minefield.populate();
+		byte[] encoded = BoardCodec.encode(minefield, true);
+		BoardCodec.decode(Arrays.copyOf(encoded, encoded.length - 2));
+	}
+}
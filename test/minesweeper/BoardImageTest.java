@@ -0,0 +1,88 @@
+package minesweeper;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.Adler32;
+import javax.imageio.ImageIO;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BoardImageTest {
+	private static BufferedImage read(byte[] png) throws IOException {
+		BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+		assertNotNull(image);
+		return image;
+	}
+
+	private static void assertTiles(Minefield minefield, boolean forceReveal, int tileSize, BufferedImage image) {
+		// Every pixel of a tile's block has the colour of the tile's symbol
+		assertEquals(minefield.getColumnCount() * tileSize, image.getWidth());
+		assertEquals(minefield.getRowCount() * tileSize, image.getHeight());
+		int[] colours = new int[12];
+		boolean[] seen = new boolean[12];
+		for (int y = 0; y < image.getHeight(); y++) {
+			for (int x = 0; x < image.getWidth(); x++) {
+				int symbol = BoardCodec.symbolOf(minefield.getTile(y / tileSize, x / tileSize), forceReveal);
+				int colour = image.getRGB(x, y);
+				if (!seen[symbol]) {
+					seen[symbol] = true;
+					colours[symbol] = colour;
+				}
+				assertEquals(colours[symbol], colour);
+			}
+		}
+		// And different symbols have different colours
+		for (int a = 0; a < colours.length; a++) {
+			for (int b = a + 1; b < colours.length; b++) {
+				assertTrue(!seen[a] || !seen[b] || colours[a] != colours[b]);
+			}
+		}
+	}
+
+	@Test
+	public void testExportMatchesBoard() throws IOException {
+		// Over several bands, so the bands' compressed streams and checksums have to join up
+		Minefield minefield = new Minefield(BoardImage.BAND_ROWS * 3 + 5, 70, 1500);
+		minefield.populateOnFirstStep(true);
+		minefield.step(100, 35);
+		Random random = new Random(97531);
+		for (int mark = 0; mark < 200; mark++) {
+			minefield.markTile(random.nextInt(minefield.getRowCount()), random.nextInt(70));
+		}
+
+		for (int tileSize = 1; tileSize <= 3; tileSize++) {
+			ByteArrayOutputStream visible = new ByteArrayOutputStream();
+			BoardImage.writePng(minefield, false, tileSize, visible);
+			assertTiles(minefield, false, tileSize, read(visible.toByteArray()));
+
+			ByteArrayOutputStream revealed = new ByteArrayOutputStream();
+			BoardImage.writePng(minefield, true, tileSize, revealed);
+			assertTiles(minefield, true, tileSize, read(revealed.toByteArray()));
+		}
+
+		// A board decoded from BoardCodec exports the same image
+		ByteArrayOutputStream fromMinefield = new ByteArrayOutputStream();
+		BoardImage.writePng(minefield, false, 2, fromMinefield);
+		ByteArrayOutputStream fromDecoded = new ByteArrayOutputStream();
+		BoardImage.writePng(BoardCodec.decode(BoardCodec.encode(minefield, false)), 2, fromDecoded);
+		assertArrayEquals(fromMinefield.toByteArray(), fromDecoded.toByteArray());
+	}
+
+	@Test
+	public void testCombineAdler32() {
+		byte[] data = new byte[100000];
+		new Random(8642).nextBytes(data);
+		Adler32 whole = new Adler32();
+		whole.update(data);
+		for (int split : new int[] { 0, 1, 65521, 70000, data.length }) {
+			Adler32 first = new Adler32();
+			first.update(data, 0, split);
+			Adler32 second = new Adler32();
+			second.update(data, split, data.length - split);
+			assertEquals(whole.getValue(), BoardImage.combineAdler32(first.getValue(), second.getValue(), data.length - split));
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package minesweeper;
+
+import java.lang.management.ManagementFactory;
+import static org.junit.Assume.*;
+
+final class Budgets {
+	/* The measuring shared by the *BudgetTest classes
+	   Allocation is measured with the JVM's per-thread allocation counter, which is exact, so those budgets always apply.
+	   Timing depends on the machine, so those budgets only apply when minesweeper.budgets.timing is set to true,
+	   as the test-budgets Ant target does. Every operation is warmed up first, so it's measured once compiled. */
+	static final boolean TIMING = Boolean.getBoolean("minesweeper.budgets.timing");
+	static final int WARM_UP_ROUNDS = 20;
+
+	private static com.sun.management.ThreadMXBean threads;
+	// What measuring nothing costs, taken off every measurement
+	private static long overheadBytes;
+
+	private Budgets() {
+	}
+
+	static void setUp() {
+		// Skips the budgets on a JVM which can't count allocations
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		threads = (com.sun.management.ThreadMXBean) bean;
+		assumeTrue(threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+
+		overheadBytes = Long.MAX_VALUE;
+		for (int i = 0; i < 10; i++) {
+			long before = allocatedBytes();
+			overheadBytes = Math.min(overheadBytes, allocatedBytes() - before);
+		}
+	}
+
+	static long allocatedBytes() {
+		return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	static long allocatedSince(long before) {
+		// The bytes this thread has allocated since allocatedBytes() returned before
+		return allocatedBytes() - before - overheadBytes;
+	}
+
+	static void report(String measured, long nanos) {
+		// Timings worth comparing between machines, but too machine dependent to fail on, go into the test's output
+		System.out.println(measured + ": " + nanos / 1000 + "us");
+	}
+}
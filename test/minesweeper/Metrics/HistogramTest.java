@@ -0,0 +1,48 @@
+package minesweeper.Metrics;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class HistogramTest {
+	@Test
+	public void testBuckets() {
+		// Every bucket's lowest value should map back to the same bucket, and buckets should be in order
+		for (int bucket = 0; bucket < 1888; bucket++) {
+			assertEquals(bucket, Histogram.bucketOf(Histogram.lowestValueOf(bucket)));
+		}
+		assertEquals(1887, Histogram.bucketOf(Long.MAX_VALUE));
+		
+		// Small values are exact
+		assertEquals(31, Histogram.lowestValueOf(Histogram.bucketOf(31)));
+	}
+	
+	@Test
+	public void testPercentiles() {
+		Histogram histogram = new Histogram("test", "ns");
+		for (long value = 1; value <= 10000; value++) {
+			histogram.record(value);
+		}
+		
+		assertEquals(10000, histogram.getCount());
+		assertEquals(10000, histogram.getMax());
+		assertEquals(5000.5, histogram.getMean(), 0.001);
+		
+		// Percentiles are within the ~3% precision of the buckets
+		assertEquals(5000, histogram.getPercentile(50), 5000 * 0.035);
+		assertEquals(9900, histogram.getPercentile(99), 9900 * 0.035);
+		assertEquals(10000, histogram.getPercentile(100), 10000 * 0.035);
+		
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getPercentile(50));
+	}
+	
+	@Test
+	public void testRegistry() {
+		// Metrics are registered once by name
+		assertSame(MetricsRegistry.counter("test.counter"), MetricsRegistry.counter("test.counter"));
+		MetricsRegistry.counter("test.counter").add(3);
+		assertEquals(Long.valueOf(3), MetricsRegistry.get().getCounters().get("test.counter"));
+		assertTrue(MetricsRegistry.get().getReport().contains("test.counter"));
+	}
+}
@@ -0,0 +1,244 @@
+package minesweeper;
+
+import java.util.Random;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+public class MinefieldBudgetTest {
+	/* Performance budgets for Minefield, so that allocation and speed regressions fail the build
+	   See Budgets for how they're measured, and when the timing budgets apply. */
+	private static final boolean TIMING = Budgets.TIMING;
+	private static final int WARM_UP_ROUNDS = Budgets.WARM_UP_ROUNDS;
+
+	@BeforeClass
+	public static void setUpClass() {
+		Budgets.setUp();
+	}
+
+	private static Minefield newMinefield(int rows, int columns, int mines, long seed) {
+		Minefield minefield = new Minefield(rows, columns, mines);
+		placeMines(minefield, seed);
+		return minefield;
+	}
+
+	private static void placeMines(Minefield minefield, long seed) {
+		// Put the mines in known places, so every run measures the same thing
+		Random random = new Random(seed);
+		while (minefield.getMineCount() < minefield.getMaxMines()) {
+			int row = random.nextInt(minefield.getRowCount());
+			int col = random.nextInt(minefield.getColumnCount());
+			if (row != 0 || col != 0) {
+				minefield.mineTile(row, col);
+			}
+		}
+	}
+
+	@Test
+	public void testMarkTileAllocatesNothing() {
+		Minefield minefield = newMinefield(100, 100, 1000, 1);
+		Random random = new Random(2);
+		int[] rows = new int[100000];
+		int[] columns = new int[rows.length];
+		for (int i = 0; i < rows.length; i++) {
+			rows[i] = random.nextInt(100);
+			columns[i] = random.nextInt(100);
+		}
+
+		long bytes = Long.MAX_VALUE;
+		for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+			long before = Budgets.allocatedBytes();
+			for (int i = 0; i < rows.length; i++) {
+				minefield.markTile(rows[i], columns[i]);
+			}
+			bytes = Budgets.allocatedSince(before);
+		}
+		assertEquals("Bytes allocated by " + rows.length + " calls to markTile", 0, bytes);
+	}
+
+	@Test
+	public void testBytesPerTile() {
+		// Each tile is a MineTile and one reference to it, plus a little for the array of each row
+		long bytes = Long.MAX_VALUE;
+		for (int round = 0; round < WARM_UP_ROUNDS / 4; round++) {
+			long before = Budgets.allocatedBytes();
+			Minefield minefield = new Minefield(1000, 1000, 0);
+			bytes = Math.min(bytes, Budgets.allocatedSince(before));
+			assertEquals(1000 * 1000, minefield.getTileCount());
+		}
+		assertTrue(bytes + " bytes for 1000000 tiles", bytes <= 1000 * 1000 * 30L);
+	}
+
+	@Test
+	public void testStepBytesPerRevealedTile() {
+		// Flood fill a sparse board from the corner, which reveals most of it in one step
+		Minefield minefield = new Minefield(300, 300, 300 * 300 / 50);
+		long bytes = 0;
+		long revealed = 0;
+		for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+			// Play the same game again each time, reusing the Minefield like Minesweeper.newGame does
+			minefield.reset();
+			placeMines(minefield, 3);
+			long before = Budgets.allocatedBytes();
+			assertTrue(minefield.step(0, 0));
+			bytes = Budgets.allocatedSince(before);
+
+			revealed = 0;
+			for (int row = 0; row < 300; row++) {
+				for (int col = 0; col < 300; col++) {
+					if (minefield.getTile(row, col).isRevealed()) {
+						revealed++;
+					}
+				}
+			}
+		}
+		assertTrue("Only revealed " + revealed + " tiles", revealed > 300 * 300 / 2);
+		// The flood fill's stack has already grown to fit, so revealing shouldn't allocate at all
+		assertEquals("Bytes allocated revealing " + revealed + " tiles", 0, bytes);
+	}
+
+	@Test
+	public void testToStringBytesPerTile() {
+		Minefield minefield = newMinefield(500, 500, 500 * 500 / 8, 4);
+		minefield.step(0, 0);
+		long tiles = minefield.getTileCount();
+
+		long bytes = 0;
+		int length = 0;
+		for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+			long before = Budgets.allocatedBytes();
+			length = minefield.toString().length();
+			bytes = Budgets.allocatedSince(before);
+		}
+		assertTrue(length > tiles);
+		// The builder, its growth and the finished string come to about 5 bytes a tile
+		assertTrue(bytes + " bytes to render " + tiles + " tiles", bytes <= tiles * 8);
+	}
+
+	@Test
+	public void testGenerationTimePerMillionTiles() {
+		// Both ways of placing mines, at the densities where populate picks each
+		long[] bestNanos = { Long.MAX_VALUE, Long.MAX_VALUE };
+		int[] mines = { 1000 * 1000 / 10, 1000 * 1000 * 3 / 4 };
+		for (int round = 0; round < WARM_UP_ROUNDS / 2; round++) {
+			for (int density = 0; density < mines.length; density++) {
+				Minefield minefield = new Minefield(1000, 1000, mines[density]);
+				long start = System.nanoTime();
+				minefield.populate();
+				bestNanos[density] = Math.min(bestNanos[density], System.nanoTime() - start);
+				assertEquals(mines[density], minefield.getMineCount());
+			}
+		}
+		assumeTrue(TIMING);
+		assertTrue("Sparse boards took " + bestNanos[0] / 1000000 + "ms per million tiles", bestNanos[0] <= 250000000L);
+		assertTrue("Dense boards took " + bestNanos[1] / 1000000 + "ms per million tiles", bestNanos[1] <= 500000000L);
+	}
+
+	@Test
+	public void testStepTimePerMillionTiles() {
+		// The same flood fill as testStepBytesPerRevealedTile, on a board 10 times the size
+		Minefield minefield = new Minefield(1000, 1000, 1000 * 1000 / 50);
+		long bestNanos = Long.MAX_VALUE;
+		for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+			minefield.reset();
+			placeMines(minefield, 6);
+			long start = System.nanoTime();
+			assertTrue(minefield.step(0, 0));
+			bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+		}
+		assertTrue(minefield.getRevealedCount() > 1000 * 1000 / 2);
+		assumeTrue(TIMING);
+		assertTrue("Revealing took " + bestNanos / 1000000 + "ms per million tiles", bestNanos <= 100000000L);
+	}
+
+	private static long clampedFloodFill(MineTile[][] tiles, LongStack stack, int row, int column) {
+		/* The classic grid's flood fill as it was before Minefield had topologies, for testStepAgainstClampedFloodFill:
+		   clamped loops over a [row][column] array of tiles with no border. Returns the number of tiles revealed. */
+		int rows = tiles.length;
+		int columns = tiles[0].length;
+		long revealed = 0;
+		stack.clear();
+		stack.push((long) row * columns + column);
+		while (!stack.isEmpty()) {
+			long coord = stack.pop();
+			int stepRow = (int) (coord / columns);
+			int stepColumn = (int) (coord % columns);
+			MineTile tile = tiles[stepRow][stepColumn];
+			if (tile.isRevealed()) {
+				continue;
+			}
+			tile.reveal();
+			revealed++;
+			if (tile.getMineNeighbours() != 0) {
+				continue;
+			}
+			int rowsRangeMax = Math.min(stepRow + 1, rows - 1);
+			int columnsRangeMax = Math.min(stepColumn + 1, columns - 1);
+			for (int neighbourRow = Math.max(stepRow - 1, 0); neighbourRow <= rowsRangeMax; neighbourRow++) {
+				for (int neighbourCol = Math.max(stepColumn - 1, 0); neighbourCol <= columnsRangeMax; neighbourCol++) {
+					if (!tiles[neighbourRow][neighbourCol].isRevealed()) {
+						stack.push((long) neighbourRow * columns + neighbourCol);
+					}
+				}
+			}
+		}
+		return revealed;
+	}
+
+	private static MineTile[][] copyTiles(Minefield minefield) {
+		MineTile[][] tiles = new MineTile[minefield.getRowCount()][minefield.getColumnCount()];
+		for (int row = 0; row < tiles.length; row++) {
+			for (int col = 0; col < tiles[row].length; col++) {
+				tiles[row][col] = new MineTile();
+				tiles[row][col].copyFrom(minefield.getTile(row, col));
+			}
+		}
+		return tiles;
+	}
+
+	@Test
+	public void testStepAgainstClampedFloodFill() {
+		/* The same flood fill as testStepTimePerMillionTiles, against clampedFloodFill on a copy of the same board
+		   Both are reported, and Minefield's, which goes through the topology's neighbour offsets and the border around
+		   its tiles instead of clamping, mustn't be much slower. The margin is wide, as the two are timed one after
+		   the other, and either can be caught by a noisy moment. */
+		Minefield minefield = new Minefield(1000, 1000, 1000 * 1000 / 50);
+		LongStack stack = new LongStack(64);
+		long bestNanos = Long.MAX_VALUE;
+		long bestClampedNanos = Long.MAX_VALUE;
+		for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+			minefield.reset();
+			placeMines(minefield, 6);
+			MineTile[][] tiles = copyTiles(minefield);
+
+			long start = System.nanoTime();
+			assertTrue(minefield.step(0, 0));
+			bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+
+			start = System.nanoTime();
+			long revealed = clampedFloodFill(tiles, stack, 0, 0);
+			bestClampedNanos = Math.min(bestClampedNanos, System.nanoTime() - start);
+			assertEquals(minefield.getRevealedCount(), revealed);
+		}
+		Budgets.report("Minefield's flood fill per million tiles", bestNanos);
+		Budgets.report("The clamped flood fill per million tiles", bestClampedNanos);
+		assumeTrue(TIMING);
+		assertTrue("Revealing took " + bestNanos / 1000 + "us, against " + bestClampedNanos / 1000 + "us clamped",
+				bestNanos <= bestClampedNanos * 3 / 2);
+	}
+
+	@Test
+	public void testRenderTimePerMillionTiles() {
+		Minefield minefield = newMinefield(1000, 1000, 1000 * 1000 / 8, 5);
+		minefield.step(0, 0);
+		long bestNanos = Long.MAX_VALUE;
+		for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+			long start = System.nanoTime();
+			minefield.toString();
+			bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+		}
+		assumeTrue(TIMING);
+		assertTrue("Rendering took " + bestNanos / 1000000 + "ms per million tiles", bestNanos <= 100000000L);
+	}
+}
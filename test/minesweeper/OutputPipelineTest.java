@@ -0,0 +1,113 @@
+package minesweeper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class OutputPipelineTest {
+	private static final class SlowChannel implements WritableByteChannel {
+		// Collects everything written, but holds the first write until released, like a console that's fallen behind
+		final ByteArrayOutputStream written = new ByteArrayOutputStream();
+		final CountDownLatch firstWrite = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			firstWrite.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				throw new IOException(e);
+			}
+			int length = src.remaining();
+			byte[] bytes = new byte[length];
+			src.get(bytes);
+			synchronized (written) {
+				written.write(bytes, 0, length);
+			}
+			return length;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public String toString() {
+			synchronized (written) {
+				return new String(written.toByteArray());
+			}
+		}
+	}
+
+	@Test
+	public void testBoardsCoalesceWhenLagging() throws Exception {
+		SlowChannel channel = new SlowChannel();
+		OutputPipeline output = new OutputPipeline(channel, 4, 1024);
+		output.submit("first|", false);
+		channel.firstWrite.await();
+
+		// The writer is stuck, so each board replaces the one before it, but messages stay put
+		for (int board = 0; board < 100; board++) {
+			output.submit("board" + board + "|", true);
+		}
+		output.submit("message|", false);
+		output.submit("board100|", true);
+		output.submit("board101|", true);
+
+		channel.release.countDown();
+		output.close();
+		assertEquals("first|board99|message|board101|", channel.toString());
+		assertEquals(100, output.getCoalescedCount());
+	}
+
+	@Test
+	public void testNothingDroppedWhenKeepingUp() throws Exception {
+		// Frames which can't be replaced are all written in order, even when they fill the queue
+		SlowChannel channel = new SlowChannel();
+		channel.release.countDown();
+		OutputPipeline output = new OutputPipeline(channel, 2, 7);
+		StringBuilder expected = new StringBuilder();
+		for (int line = 0; line < 500; line++) {
+			output.submit("line " + line + "\n", false);
+			expected.append("line ").append(line).append('\n');
+		}
+		output.close();
+		assertEquals(expected.toString(), channel.toString());
+		assertEquals(0, output.getCoalescedCount());
+	}
+
+	@Test
+	public void testFlushWritesEverythingSubmitted() throws Exception {
+		// After a flush, everything submitted so far is on the channel, so writing elsewhere can't overtake it
+		SlowChannel channel = new SlowChannel();
+		channel.release.countDown();
+		OutputPipeline output = new OutputPipeline(channel, 4, 16);
+		StringBuilder expected = new StringBuilder();
+		for (int line = 0; line < 50; line++) {
+			output.submit("line " + line + "\n", line % 2 == 0);
+			output.flush();
+			expected.append("line ").append(line).append('\n');
+			assertEquals(expected.toString(), channel.toString());
+		}
+		output.close();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testSubmitAfterClose() throws Exception {
+		SlowChannel channel = new SlowChannel();
+		channel.release.countDown();
+		OutputPipeline output = new OutputPipeline(channel, 2, 16);
+		output.close();
+		output.submit(">", false);
+	}
+}
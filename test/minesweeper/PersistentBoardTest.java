@@ -0,0 +1,114 @@
+package minesweeper;
+
+import java.util.Random;
+import org.junit.Test;
+import static minesweeper.BoardAssert.assertSameState;
+import static org.junit.Assert.*;
+
+public class PersistentBoardTest {
+	@Test
+	public void testStepMatchesMinefield() {
+		// Step and mark on random boards, and check the PersistentBoard always matches the Minefield
+		Random random = new Random(4321);
+		for (int board = 0; board < 20; board++) {
+			int rows = 2 + random.nextInt(120);
+			int columns = 2 + random.nextInt(120);
+			Minefield minefield = new Minefield(rows, columns, rows * columns / (4 + random.nextInt(20)));
+			minefield.populate();
+			PersistentBoard persistent = PersistentBoard.of(minefield);
+			assertSameState(minefield, persistent);
+			
+			for (int move = 0; move < 10; move++) {
+				int row = random.nextInt(rows);
+				int col = random.nextInt(columns);
+				if (random.nextBoolean()) {
+					minefield.markTile(row, col);
+					persistent = persistent.mark(row, col);
+				} else if (!minefield.getTile(row, col).isMined()) {
+					assertTrue(minefield.step(row, col));
+					persistent = persistent.step(row, col);
+					assertFalse(persistent.isLost());
+				}
+			}
+			assertSameState(minefield, persistent);
+		}
+	}
+	
+	@Test
+	public void testSnapshotsAreIndependent() {
+		Minefield minefield = new Minefield(100, 100, 1);
+		minefield.mineTile(99, 99);
+		PersistentBoard before = PersistentBoard.of(minefield);
+		
+		// Marking a tile leaves the previous version alone, and only copies the block the tile is in
+		PersistentBoard marked = before.mark(50, 50);
+		assertTrue(marked.isMarked(50, 50));
+		assertFalse(before.isMarked(50, 50));
+		assertFalse(marked.sharesBlock(before, 50, 50));
+		assertTrue(marked.sharesBlock(before, 0, 0));
+		assertTrue(marked.sharesBlock(before, 99, 99));
+		
+		// Stepping on the mine loses, without affecting either earlier version
+		PersistentBoard lost = marked.step(99, 99);
+		assertTrue(lost.isLost());
+		assertTrue(lost.isRevealed(99, 99));
+		assertFalse(marked.isLost());
+		assertFalse(marked.isRevealed(99, 99));
+		
+		// Every mine is marked, but stepping on one still loses rather than wins
+		PersistentBoard flagged = before.mark(99, 99);
+		assertTrue(flagged.areAllMinesRevealed());
+		PersistentBoard lostFlagged = flagged.step(99, 99);
+		assertTrue(lostFlagged.isLost());
+		assertFalse(lostFlagged.areAllMinesRevealed());
+	}
+	
+	@Test
+	public void testOtherTopologies() {
+		// The flood fill is the topology's, so a torus wraps around and a cube's counts can go well past 8
+		Random random = new Random(2468);
+		for (Topology topology : new Topology[] { Topology.torus(9, 7), Topology.hexagon(8, 11), Topology.cube(4, 5, 6) }) {
+			Minefield minefield = new Minefield(topology, (int) (topology.getTileCount() / 5));
+			minefield.populate();
+			PersistentBoard persistent = PersistentBoard.of(minefield);
+			for (int move = 0; move < 20; move++) {
+				int row = random.nextInt(minefield.getRowCount());
+				int col = random.nextInt(minefield.getColumnCount());
+				if (minefield.getTile(row, col).isMined()) {
+					minefield.markTile(row, col);
+					persistent = persistent.mark(row, col);
+				} else {
+					minefield.step(row, col);
+					persistent = persistent.step(row, col);
+				}
+				assertSameState(minefield, persistent);
+			}
+		}
+	}
+	
+	@Test
+	public void testUndoRedo() {
+		Minefield minefield = new Minefield(10, 10, 1);
+		minefield.mineTile(5, 5);
+		BoardHistory history = new BoardHistory(PersistentBoard.of(minefield));
+		
+		history.step(0, 0);
+		history.mark(5, 5);
+		assertTrue(history.current().areAllMinesRevealed());
+		
+		history.undo();
+		assertFalse(history.current().isMarked(5, 5));
+		assertTrue(history.current().isRevealed(0, 0));
+		
+		history.undo();
+		assertFalse(history.current().isRevealed(0, 0));
+		assertFalse(history.canUndo());
+		
+		history.redo();
+		assertTrue(history.current().isRevealed(0, 0));
+		
+		// A new move drops the redo history
+		history.mark(1, 1);
+		assertFalse(history.canRedo());
+	}
+}
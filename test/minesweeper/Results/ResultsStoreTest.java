@@ -0,0 +1,97 @@
+package minesweeper.Results;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+public class ResultsStoreTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static GameResult randomResult(Random random) {
+		int size = 8 + random.nextInt(3) * 8;
+		return new GameResult(size, size, size * size / 8, random.nextLong(), 1 + random.nextInt(50), 1000 + random.nextInt(100000), random.nextInt(3) == 0);
+	}
+
+	@Test
+	public void testCodecRoundTrip() throws IOException {
+		long[] values = {0, 5, -3, Long.MAX_VALUE, Long.MIN_VALUE, 42, 42, 42};
+		assertArrayEquals(values, ColumnCodec.decode(ColumnCodec.encode(values, values.length), values.length));
+	}
+
+	@Test
+	public void testQueriesMatchAcrossBlocksAndReopen() throws IOException {
+		// Results split between blocks and the tail should give the same answers as a simple scan of every result
+		Path directory = folder.getRoot().toPath();
+		Random random = new Random(99);
+		GameResult[] all = new GameResult[1000];
+		try (ResultsStore store = new ResultsStore(directory, 64)) {
+			for (int i = 0; i < all.length; i++) {
+				all[i] = randomResult(random);
+				store.append(all[i]);
+			}
+		}
+
+		try (ResultsStore store = new ResultsStore(directory, 64)) {
+			assertEquals(all.length, store.getCount());
+
+			List<BoardStats> stats = store.statsBySize();
+			assertEquals(3, stats.size());
+			for (BoardStats board : stats) {
+				long games = 0, wins = 0, best = -1;
+				for (GameResult result : all) {
+					if (result.getRowCount() == board.getRowCount() && result.getColumnCount() == board.getColumnCount()) {
+						games++;
+						if (result.isWon()) {
+							wins++;
+							best = best < 0 ? result.getDurationMillis() : Math.min(best, result.getDurationMillis());
+						}
+					}
+				}
+				assertEquals(games, board.getGameCount());
+				assertEquals(wins, board.getWinCount());
+				assertEquals(best, board.getBestMillis());
+
+				List<GameResult> bestTimes = store.bestTimes(board.getRowCount(), board.getColumnCount(), 5);
+				assertEquals(5, bestTimes.size());
+				assertEquals(best, bestTimes.get(0).getDurationMillis());
+				for (int i = 1; i < bestTimes.size(); i++) {
+					assertTrue(bestTimes.get(i - 1).getDurationMillis() <= bestTimes.get(i).getDurationMillis());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testRecoversFromTornWrites() throws IOException {
+		// A half-written tail record or index entry is dropped on reopening
+		Path directory = folder.getRoot().toPath();
+		Random random = new Random(7);
+		try (ResultsStore store = new ResultsStore(directory, 16)) {
+			for (int i = 0; i < 40; i++) {
+				store.append(randomResult(random));
+			}
+		}
+		try (FileChannel tail = FileChannel.open(directory.resolve("results.tail"), StandardOpenOption.WRITE)) {
+			tail.truncate(tail.size() - 3);
+		}
+		try (FileChannel index = FileChannel.open(directory.resolve("results.idx"), StandardOpenOption.WRITE)) {
+			index.write(ByteBuffer.allocate(10), index.size());
+		}
+
+		try (ResultsStore store = new ResultsStore(directory, 16)) {
+			// Only the last of the 8 games in the tail is lost
+			assertEquals(32 + 7, store.getCount());
+			store.append(randomResult(random));
+			assertEquals(32 + 8, store.getCount());
+		}
+	}
+}
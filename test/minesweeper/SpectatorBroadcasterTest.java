@@ -0,0 +1,105 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SpectatorBroadcasterTest {
+	private static String render(Minefield minefield, boolean forceReveal) {
+		// What a spectator should see, in the same layout as SpectatorView.toString()
+		StringBuilder builder = new StringBuilder();
+		for (int row = 0; row < minefield.getRowCount(); row++) {
+			if (row > 0) {
+				builder.append('\n');
+			}
+			for (int col = 0; col < minefield.getColumnCount(); col++) {
+				builder.append(minefield.getTile(row, col).toChar(forceReveal));
+			}
+		}
+		return builder.toString();
+	}
+
+	private static Socket connect(SpectatorBroadcaster broadcaster) throws IOException {
+		Socket socket = new Socket(InetAddress.getLoopbackAddress(), broadcaster.getPort());
+		// Fail rather than hang if the spectator never catches up
+		socket.setSoTimeout(5000);
+		return socket;
+	}
+
+	private static void catchUp(SpectatorView view, InputStream in, String expected) throws IOException {
+		// Apply frames until the spectator sees what's expected
+		while (!view.hasKeyframe() || !view.toString().equals(expected)) {
+			view.readFrame(in);
+		}
+	}
+
+	@Test
+	public void testSpectatorFollowsGame() throws IOException {
+		// Play random games, and check a spectator always ends up seeing the same board as the player
+		Random random = new Random(1234);
+		try (SpectatorBroadcaster broadcaster = new SpectatorBroadcaster(0, 4, 16);
+				Socket socket = connect(broadcaster)) {
+			InputStream in = socket.getInputStream();
+			SpectatorView view = new SpectatorView();
+			for (int game = 0; game < 5; game++) {
+				Minefield minefield = new Minefield(5 + random.nextInt(20), 5 + random.nextInt(20), 10);
+				minefield.populate();
+				broadcaster.attach(minefield);
+				catchUp(view, in, render(minefield, false));
+
+				boolean over = false;
+				while (!over) {
+					int row = random.nextInt(minefield.getRowCount());
+					int col = random.nextInt(minefield.getColumnCount());
+					if (random.nextInt(4) == 0) {
+						minefield.markTile(row, col);
+					} else {
+						over = !minefield.step(row, col);
+					}
+					over |= minefield.areAllMinesRevealed();
+					catchUp(view, in, render(minefield, over));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testLateSpectatorCatchesUp() throws IOException {
+		// A spectator joining part way through a game gets the latest keyframe and the deltas since it
+		Minefield minefield = new Minefield(30, 30, 1);
+		minefield.mineTile(29, 29);
+		try (SpectatorBroadcaster broadcaster = new SpectatorBroadcaster(0, 8, 16)) {
+			broadcaster.attach(minefield);
+			minefield.markTile(5, 5);
+			minefield.markTile(6, 6);
+			minefield.markTile(5, 5);
+
+			try (Socket socket = connect(broadcaster)) {
+				SpectatorView view = new SpectatorView();
+				// The very first frame is the keyframe from attach(), followed by the three deltas
+				view.readFrame(socket.getInputStream());
+				assertTrue(view.hasKeyframe());
+				assertEquals(0, view.getSequence());
+				catchUp(view, socket.getInputStream(), render(minefield, false));
+				assertEquals(3, view.getSequence());
+				assertEquals('!', view.getTile(6, 6));
+				assertEquals('#', view.getTile(5, 5));
+
+				// Frames made after joining arrive too
+				minefield.step(0, 0);
+				catchUp(view, socket.getInputStream(), render(minefield, false));
+				assertEquals(' ', view.getTile(0, 0));
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testQueueSmallerThanKeyframeInterval() throws IOException {
+		// A catch-up must always fit in a spectator's queue
+		new SpectatorBroadcaster(0, 16, 16).close();
+	}
+}
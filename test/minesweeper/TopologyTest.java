@@ -0,0 +1,150 @@
+package minesweeper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class TopologyTest {
+	private static MineTile tileAt(Minefield minefield, long tile) {
+		return minefield.getTile(minefield.rowOf(tile), minefield.columnOf(tile));
+	}
+
+	private static void mineTile(Minefield minefield, long tile) {
+		assertTrue(minefield.mineTile(minefield.rowOf(tile), minefield.columnOf(tile)));
+	}
+
+	@Test
+	public void testRectangleIsTheClassicGrid() {
+		Minefield minefield = new Minefield(3, 4, 2);
+		assertEquals(Topology.rectangle(3, 4), minefield.getTopology());
+		assertNotEquals(Topology.torus(3, 4), minefield.getTopology());
+		assertNotEquals(Topology.rectangle(4, 3), minefield.getTopology());
+	}
+
+	@Test
+	public void testTorusWrapsAround() {
+		// A mine in a corner neighbours the tiles in the other three corners
+		Topology torus = Topology.torus(4, 5);
+		Minefield minefield = new Minefield(torus, 1);
+		mineTile(minefield, torus.tileAt(3, 4));
+		assertEquals(1, tileAt(minefield, torus.tileAt(0, 0)).getMineNeighbours());
+		assertEquals(1, tileAt(minefield, torus.tileAt(0, 4)).getMineNeighbours());
+		assertEquals(1, tileAt(minefield, torus.tileAt(3, 0)).getMineNeighbours());
+		assertEquals(0, tileAt(minefield, torus.tileAt(1, 1)).getMineNeighbours());
+
+		// Stepping anywhere empty floods the whole torus apart from the mine, and marking it wins
+		assertTrue(minefield.step(1, 1));
+		for (long tile = 0; tile < torus.getTileCount(); tile++) {
+			assertEquals(!tileAt(minefield, tile).isMined(), tileAt(minefield, tile).isRevealed());
+		}
+		minefield.markTile(3, 4);
+		assertTrue(minefield.areAllMinesRevealed());
+	}
+
+	@Test
+	public void testTorusFirstStepKeepsNeighboursClear() {
+		// The tiles kept clear around a first step in the corner wrap around too
+		Topology torus = Topology.torus(5, 5);
+		for (int game = 0; game < 20; game++) {
+			Minefield minefield = new Minefield(torus, 12);
+			minefield.populateOnFirstStep(true);
+			assertTrue(minefield.step(0, 0));
+			assertEquals(12, minefield.getMineCount());
+			for (int row : new int[] { 4, 0, 1 }) {
+				for (int col : new int[] { 4, 0, 1 }) {
+					assertFalse(minefield.getTile(row, col).isMined());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testHexagonNeighbours() {
+		// On an odd row, the neighbours above and below are shifted to the right
+		Topology hexagon = Topology.hexagon(5, 5);
+		Minefield minefield = new Minefield(hexagon, 1);
+		mineTile(minefield, hexagon.tileAt(1, 2));
+		int neighbours = 0;
+		for (long tile = 0; tile < hexagon.getTileCount(); tile++) {
+			neighbours += tileAt(minefield, tile).getMineNeighbours();
+		}
+		assertEquals(6, neighbours);
+		assertEquals(1, tileAt(minefield, hexagon.tileAt(0, 3)).getMineNeighbours());
+		assertEquals(0, tileAt(minefield, hexagon.tileAt(0, 1)).getMineNeighbours());
+		assertEquals(1, tileAt(minefield, hexagon.tileAt(2, 3)).getMineNeighbours());
+		assertEquals("0 # # # # #\n1  # # # # #\n2 # # # # #\n3  # # # # #\n4 # # # # #", minefield.toString());
+	}
+
+	@Test
+	public void testCubeNeighbours() {
+		// A mine in the middle of a 3x3x3 cube neighbours every other tile
+		Topology cube = Topology.cube(3, 3, 3);
+		Minefield minefield = new Minefield(cube, 1);
+		assertEquals(9, minefield.getRowCount());
+		mineTile(minefield, cube.tileAt(1, 1, 1));
+		for (long tile = 0; tile < cube.getTileCount(); tile++) {
+			assertEquals(tile == cube.tileAt(1, 1, 1) ? 0 : 1, tileAt(minefield, tile).getMineNeighbours());
+		}
+
+		// So stepping only reveals the one tile
+		assertTrue(minefield.step(0, 0));
+		assertTrue(minefield.getTile(0, 0).isRevealed());
+		assertFalse(minefield.getTile(0, 1).isRevealed());
+		assertFalse(minefield.step(4, 1));
+
+		// Each layer is drawn as its own grid
+		assertEquals("Layer 0\n  012\n0 111\n1 111\n2 111\n\nLayer 1\n  012\n0 111\n1 1*1\n2 111\n\nLayer 2\n  012\n0 111\n1 111\n2 111",
+				minefield.toString(true));
+	}
+
+	@Test
+	public void testCubeCountsAboveNine() {
+		// Every tile but (0,0) mined leaves the middle of the cube with 25 mined neighbours, drawn as a letter
+		Topology cube = Topology.cube(3, 3, 3);
+		Minefield minefield = new Minefield(cube, 25);
+		for (long tile = 1; tile < cube.getTileCount(); tile++) {
+			if (tile != cube.tileAt(1, 1, 1)) {
+				mineTile(minefield, tile);
+			}
+		}
+		assertEquals(25, tileAt(minefield, cube.tileAt(1, 1, 1)).getMineNeighbours());
+		assertEquals('p', tileAt(minefield, cube.tileAt(1, 1, 1)).toChar(true));
+		assertEquals("p", tileAt(minefield, cube.tileAt(1, 1, 1)).toString(true));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTinyTorus() {
+		Topology.torus(2, 10);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCopyBetweenTopologies() {
+		new Minefield(Topology.torus(4, 4), 2).copyFrom(new Minefield(4, 4, 2));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEncodeCube() {
+		// Counts up to 26 don't fit a BoardCodec symbol
+		BoardCodec.encode(new Minefield(Topology.cube(3, 3, 3), 2), true);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBroadcastCube() throws IOException {
+		// Refused when it's attached, not from inside a step once the game is being played
+		try (SpectatorBroadcaster broadcaster = new SpectatorBroadcaster(0, 4, 16)) {
+			broadcaster.attach(new Minefield(Topology.cube(3, 3, 3), 2));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDrawHexagon() throws IOException {
+		BoardImage.writePng(new Minefield(Topology.hexagon(4, 4), 2), true, 1, new ByteArrayOutputStream());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testAnalyseTorus() {
+		// 3BV, openings and islands would be counted with the rectangle's neighbours
+		BoardAnalysis.analyse(new Minefield(Topology.torus(4, 4), 2));
+	}
+}